@@ -0,0 +1,31 @@
+package de.nkilders.neat.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * @author Noah Kilders
+ */
+// Startet alle Benchmarks mit GC-Profiler (Allokationsrate pro Operation) und schreibt die Ergebnisse als JSON
+// Weitere JMH-Optionen werden übernommen, z.B. "GenomeBenchmark.query -p inputs=8" oder "-rff baseline.json"
+public class BenchmarkMain {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .include(commandLine.getIncludes().isEmpty() ? "de\\.nkilders\\.neat\\.benchmark\\..*" : String.join("|", commandLine.getIncludes()))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(commandLine.getResult().orElse("neat-benchmarks.json"))
+                .build();
+
+        new Runner(options).run();
+    }
+}
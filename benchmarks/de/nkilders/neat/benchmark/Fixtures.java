@@ -0,0 +1,81 @@
+package de.nkilders.neat.benchmark;
+
+import de.nkilders.neat.ConnectionGene;
+import de.nkilders.neat.Counters;
+import de.nkilders.neat.Genome;
+import de.nkilders.neat.Neuron;
+
+import java.util.SplittableRandom;
+
+/**
+ * @author Noah Kilders
+ */
+// Erzeugt reproduzierbare Genome in vorgegebener Größe für die Benchmarks
+public class Fixtures {
+    private Fixtures() {
+    }
+
+    // Erzeugt ein Genom mit numInputs Eingabe-, numOutputs Ausgabe- und numHidden versteckten Neuronen und genau numConnections Verbindungen
+    // Die Verbindungen werden zufällig aus allen Paaren gezogen, die in der Reihenfolge Eingaben, versteckte Neuronen, Ausgaben vorwärts zeigen,
+    // sodass keine Schleifen entstehen und keine Verbindung abgelehnt wird.
+    // Alle Genome, die mit denselben counters erzeugt werden, haben gemeinsame Innovation-Numbers und lassen sich daher sinnvoll kreuzen und vergleichen
+    public static Genome genome(int numInputs, int numOutputs, int numHidden, int numConnections, Counters counters, long seed) {
+        // Ein verstecktes Neuron kann mit allen Eingaben, den vorherigen versteckten Neuronen und allen Ausgaben verbunden werden
+        long maxConnections = (long) numInputs * (numHidden + numOutputs) + (long) numHidden * (numHidden - 1) / 2 + (long) numHidden * numOutputs;
+
+        if (numConnections > maxConnections) {
+            throw new IllegalArgumentException("Mit diesen Neuronen sind höchstens " + maxConnections + " Verbindungen möglich!");
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        Genome genome = new Genome();
+        genome.setCounters(counters);
+
+        // IDs in Vorwärtsrichtung: Eingaben, versteckte Neuronen, Ausgaben
+        int[] ids = new int[numInputs + numHidden + numOutputs];
+
+        for (int i = 0; i < numInputs; i++) {
+            ids[i] = i;
+            genome.addNeuron(new Neuron(ids[i], Neuron.NeuronType.INPUT));
+        }
+
+        for (int o = 0; o < numOutputs; o++) {
+            ids[numInputs + numHidden + o] = numInputs + o;
+            genome.addNeuron(new Neuron(numInputs + o, Neuron.NeuronType.OUTPUT));
+        }
+
+        for (int h = 0; h < numHidden; h++) {
+            ids[numInputs + h] = numInputs + numOutputs + h;
+            genome.addNeuron(new Neuron(numInputs + numOutputs + h, Neuron.NeuronType.HIDDEN));
+        }
+
+        while (genome.getConnectionGenes().size() < numConnections) {
+            int from = random.nextInt(numInputs + numHidden);
+            int to = random.nextInt(Math.max(from + 1, numInputs), ids.length);
+
+            if (!genome.hasConnection(ids[from], ids[to])) {
+                genome.addConnectionGene(new ConnectionGene(ids[from], ids[to], random.nextDouble(-2.0D, 2.0D), true,
+                        counters.getConnectionInnovation(ids[from], ids[to])));
+            }
+        }
+
+        return genome;
+    }
+
+    // Erzeugt die Zähler für Genome mit numInputs Eingabe- und numOutputs Ausgabeneuronen
+    public static Counters counters(int numInputs, int numOutputs) {
+        return new Counters(0, numInputs + numOutputs);
+    }
+
+    // Erzeugt numSamples zufällige Eingabezeilen hintereinander
+    public static double[] inputs(int numInputs, int numSamples, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] inputs = new double[numInputs * numSamples];
+
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = random.nextDouble(-1.0D, 1.0D);
+        }
+
+        return inputs;
+    }
+}
@@ -0,0 +1,105 @@
+package de.nkilders.neat.benchmark;
+
+import de.nkilders.neat.Counters;
+import de.nkilders.neat.Genome;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Noah Kilders
+ */
+// Misst die Operationen, die pro Genom und Generation anfallen
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenomeBenchmark {
+    // Anzahl der Eingabezeilen für queryBatch()
+    private static final int NUM_SAMPLES = 256;
+    // Anzahl der Ausgabeneuronen
+    private static final int NUM_OUTPUTS = 4;
+
+    @Param({"8", "64"})
+    public int inputs;
+
+    // Mit weniger versteckten Neuronen wären bei 8 Eingaben keine 1000 schleifenfreien Verbindungen möglich
+    @Param({"50", "200"})
+    public int hidden;
+
+    @Param({"100", "1000"})
+    public int connections;
+
+    private Genome genome;
+    private Genome other;
+    private double[] input;
+    private double[] output;
+    private double[] batchInputs;
+    private double[] batchOutputs;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Counters counters = Fixtures.counters(inputs, NUM_OUTPUTS);
+
+        genome = Fixtures.genome(inputs, NUM_OUTPUTS, hidden, connections, counters, 1L);
+        other = Fixtures.genome(inputs, NUM_OUTPUTS, hidden, connections, counters, 2L);
+        input = Fixtures.inputs(inputs, 1, 3L);
+        output = new double[NUM_OUTPUTS];
+        batchInputs = Fixtures.inputs(inputs, NUM_SAMPLES, 4L);
+        batchOutputs = new double[NUM_SAMPLES * NUM_OUTPUTS];
+        random = new SplittableRandom(5L);
+
+        // Die kompilierte Form wird einmal vorab erstellt, damit query() nur die Abfrage misst
+        genome.query(input, output);
+    }
+
+    @Benchmark
+    public double[] query() {
+        genome.query(input, output);
+        return output;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_SAMPLES)
+    public double[] queryBatch() {
+        genome.queryBatch(batchInputs, NUM_SAMPLES, batchOutputs);
+        return batchOutputs;
+    }
+
+    // Kopieren und Mutieren, wie bei der Reproduktion, ohne dass das Fixture mit jedem Aufruf wächst
+    @Benchmark
+    public Genome mutate() {
+        Genome child = genome.copy();
+        child.mutate(random);
+        return child;
+    }
+
+    @Benchmark
+    public Genome copy() {
+        return genome.copy();
+    }
+
+    @Benchmark
+    public Genome crossover() {
+        return Genome.crossover(genome, other, random);
+    }
+
+    @Benchmark
+    public double compatibilityDistance() {
+        return genome.compatibilityDistance(other);
+    }
+
+    // Erste Abfrage nach einer Änderung, einschließlich der Erstellung der kompilierten Form
+    @Benchmark
+    public void compileAndQuery(Blackhole blackhole) {
+        Genome child = genome.copy();
+        child.randomizeWeights(random);
+        child.query(input, output);
+        blackhole.consume(output);
+    }
+}
@@ -0,0 +1,62 @@
+package de.nkilders.neat.benchmark;
+
+import de.nkilders.neat.Genome;
+import de.nkilders.neat.NEAT;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Noah Kilders
+ */
+// Misst ganze Generationen mit einer billigen Bewertung, sodass Spezifizierung, Selektion und Reproduktion überwiegen
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NEATBenchmark {
+    private static final double[][] XOR = {{0, 0, 1}, {0, 1, 1}, {1, 0, 1}, {1, 1, 1}};
+    private static final double[] XOR_OUTPUTS = {0, 1, 1, 0};
+
+    @Param({"150", "1000", "10000"})
+    public int populationSize;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private NEAT neat;
+
+    // Jede Iteration beginnt mit einer neuen Bevölkerung, damit die Genome über die Iterationen nicht immer größer werden
+    @Setup(Level.Iteration)
+    public void setUp() {
+        // Zwei Eingaben und Bias, eine Ausgabe, alle Eingaben mit der Ausgabe verbunden
+        Genome startGenome = Fixtures.genome(3, 1, 0, 3, Fixtures.counters(3, 1), 1L);
+
+        neat = new NEAT(startGenome, populationSize, 1L) {
+            @Override
+            public double evaluateGenome(Genome genome) {
+                double error = 0.0D;
+                double[] output = new double[1];
+
+                for (int i = 0; i < XOR.length; i++) {
+                    genome.query(XOR[i], output);
+                    error += Math.abs(output[0] - XOR_OUTPUTS[i]);
+                }
+
+                return 4.0D - error;
+            }
+        };
+
+        neat.setExecutor(parallel ? ForkJoinPool.commonPool() : null);
+        neat.setLogging(false);
+    }
+
+    @Benchmark
+    public NEAT processGeneration() {
+        neat.processGeneration();
+        return neat;
+    }
+}
@@ -0,0 +1,42 @@
+package de.nkilders.neat;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * @author Noah Kilders
+ */
+// Rechenkern auf Basis der Vector API, wird nur mit --add-modules jdk.incubator.vector kompiliert und verwendet
+public class VectorBatchKernel implements BatchKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void accumulate(double[] activations, int target, int source, double weight, int length) {
+        int i = 0;
+
+        for (; i < SPECIES.loopBound(length); i += SPECIES.length()) {
+            DoubleVector t = DoubleVector.fromArray(SPECIES, activations, target + i);
+            DoubleVector s = DoubleVector.fromArray(SPECIES, activations, source + i);
+            t.add(s.mul(weight)).intoArray(activations, target + i);
+        }
+
+        for (; i < length; i++) {
+            activations[target + i] += weight * activations[source + i];
+        }
+    }
+
+    @Override
+    public void activate(double[] activations, int offset, int length) {
+        int i = 0;
+
+        for (; i < SPECIES.loopBound(length); i += SPECIES.length()) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, activations, offset + i);
+            x.div(x.lanewise(VectorOperators.ABS).add(1.0D)).intoArray(activations, offset + i);
+        }
+
+        for (; i < length; i++) {
+            activations[offset + i] = Network.sigmoid(activations[offset + i]);
+        }
+    }
+}
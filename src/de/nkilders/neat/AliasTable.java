@@ -0,0 +1,114 @@
+package de.nkilders.neat;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * @author Noah Kilders
+ */
+// Zieht Indizes mit Wahrscheinlichkeiten proportional zu ihren Gewichten in konstanter Zeit (Alias-Methode nach Vose)
+// Die Tabelle wird einmal in O(n) erstellt, danach braucht jede Ziehung eine ganze und eine Gleitkomma-Zufallszahl.
+// Negative Gewichte werden um das kleinste Gewicht verschoben, sodass dieses die Wahrscheinlichkeit 0 erhält.
+// Sind alle (verschobenen) Gewichte 0, wird gleichverteilt gezogen.
+public class AliasTable {
+    // Wahrscheinlichkeit, mit der in Spalte i der Index i selbst und nicht aliases[i] gezogen wird
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+
+        if (n == 0) {
+            throw new IllegalArgumentException("Es wird mindestens ein Gewicht gebraucht!");
+        }
+
+        double min = Double.POSITIVE_INFINITY;
+
+        for (double weight : weights) {
+            if (!Double.isFinite(weight)) {
+                throw new IllegalArgumentException("Ungültiges Gewicht " + weight + "!");
+            }
+
+            min = Math.min(min, weight);
+        }
+
+        double shift = min < 0.0D ? -min : 0.0D;
+        double total = 0.0D;
+
+        for (double weight : weights) {
+            total += weight + shift;
+        }
+
+        if (!Double.isFinite(total)) {
+            throw new IllegalArgumentException("Die Summe der Gewichte ist zu groß!");
+        }
+
+        probabilities = new double[n];
+        aliases = new int[n];
+
+        if (total <= 0.0D) {
+            for (int i = 0; i < n; i++) {
+                probabilities[i] = 1.0D;
+                aliases[i] = i;
+            }
+
+            return;
+        }
+
+        // Gewichte so skalieren, dass ihr Durchschnitt 1 ist, und in zu kleine und zu große Spalten aufteilen
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int numSmall = 0;
+        int numLarge = 0;
+
+        for (int i = 0; i < n; i++) {
+            scaled[i] = (weights[i] + shift) * n / total;
+
+            if (scaled[i] < 1.0D) {
+                small[numSmall++] = i;
+            } else {
+                large[numLarge++] = i;
+            }
+        }
+
+        // Jede zu kleine Spalte wird mit einer zu großen aufgefüllt
+        while (numSmall > 0 && numLarge > 0) {
+            int s = small[--numSmall];
+            int l = large[--numLarge];
+
+            probabilities[s] = scaled[s];
+            aliases[s] = l;
+            scaled[l] = scaled[l] + scaled[s] - 1.0D;
+
+            if (scaled[l] < 1.0D) {
+                small[numSmall++] = l;
+            } else {
+                large[numLarge++] = l;
+            }
+        }
+
+        // Übrige Spalten sind (bis auf Rundungsfehler) genau voll
+        while (numLarge > 0) {
+            int l = large[--numLarge];
+            probabilities[l] = 1.0D;
+            aliases[l] = l;
+        }
+
+        while (numSmall > 0) {
+            int s = small[--numSmall];
+            probabilities[s] = 1.0D;
+            aliases[s] = s;
+        }
+    }
+
+    // Zieht einen Index
+    public int sample(RandomGenerator random) {
+        int column = random.nextInt(probabilities.length);
+        return random.nextDouble() < probabilities[column] ? column : aliases[column];
+    }
+
+    // Gibt die Anzahl der Gewichte zurück
+    public int size() {
+        return probabilities.length;
+    }
+}
@@ -0,0 +1,27 @@
+package de.nkilders.neat;
+
+/**
+ * @author Noah Kilders
+ */
+// Rechenkern für die Abfrage vieler Eingabezeilen auf einmal
+// Die Aktivierungen eines Neurons liegen für alle Zeilen hintereinander, sodass die Schleifen zusammenhängenden Speicher durchlaufen
+public interface BatchKernel {
+    // Addiert weight * activations[source + i] auf activations[target + i] für alle i < length
+    void accumulate(double[] activations, int target, int source, double weight, int length);
+
+    // Wendet die Aktivierungsfunktion auf activations[offset + i] für alle i < length an
+    void activate(double[] activations, int offset, int length);
+
+    // Gibt den Vektor-Rechenkern zurück, sofern das Modul jdk.incubator.vector geladen ist, ansonsten den skalaren
+    static BatchKernel load() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (BatchKernel) Class.forName("de.nkilders.neat.VectorBatchKernel").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError ignored) {
+                // VectorBatchKernel wurde nicht mitkompiliert
+            }
+        }
+
+        return new ScalarBatchKernel();
+    }
+}
@@ -0,0 +1,217 @@
+package de.nkilders.neat;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Noah Kilders
+ */
+// Zustand eines NEAT-Durchlaufs zwischen zwei Generationen, aus dem der Durchlauf exakt fortgesetzt werden kann
+//
+// Datei: Magic "NEAC", Version, Generation, Seed, deterministisch (1 Byte), Größe der Bevölkerung, nächste Innovation-Number, nächste Neuronen-ID,
+//        Start-Genom, bestes Genom, Anzahl der Spezies, (Repräsentant, Alter, bisher höchste Fitness, Stagnation) je Spezies,
+//        Anzahl der Genome, (Index der Spezies, übernommener Champion (1 Byte), Genom) je Genom
+// Die Genome werden im Format von GenomeIO gespeichert
+class Checkpoint {
+    private static final int MAGIC = 0x4E454143; // "NEAC"
+    private static final int VERSION = 3;
+
+    final int generation;
+    final long seed;
+    final boolean deterministic;
+    final int populationSize;
+    final int nextConnectionInnovation;
+    final int nextNeuronId;
+    final Genome startGenome;
+    final Genome mostFitGenome;
+    // Repräsentanten der Spezies, mit denen die nächste Generation eingeteilt wird
+    final List<Genome> representatives;
+    // Alter, bisher höchste Fitness und Stagnation jeder Spezies
+    final int[] speciesAges;
+    final double[] speciesBestFitness;
+    final int[] speciesStagnation;
+    final List<Genome> genomes;
+    // Index der Spezies jedes Genoms in representatives, oder -1
+    final int[] speciesIndices;
+    // Gibt für jedes Genom an, ob es ein unverändert übernommener Champion ist, der nicht erneut bewertet wird
+    final boolean[] elites;
+
+    Checkpoint(int generation, long seed, boolean deterministic, int populationSize, int nextConnectionInnovation, int nextNeuronId,
+               Genome startGenome, Genome mostFitGenome, List<Genome> representatives, int[] speciesAges, double[] speciesBestFitness,
+               int[] speciesStagnation, List<Genome> genomes, int[] speciesIndices, boolean[] elites) {
+        this.generation = generation;
+        this.seed = seed;
+        this.deterministic = deterministic;
+        this.populationSize = populationSize;
+        this.nextConnectionInnovation = nextConnectionInnovation;
+        this.nextNeuronId = nextNeuronId;
+        this.startGenome = startGenome;
+        this.mostFitGenome = mostFitGenome;
+        this.representatives = representatives;
+        this.speciesAges = speciesAges;
+        this.speciesBestFitness = speciesBestFitness;
+        this.speciesStagnation = speciesStagnation;
+        this.genomes = genomes;
+        this.speciesIndices = speciesIndices;
+        this.elites = elites;
+    }
+
+    // Schreibt den Checkpoint zuerst in eine temporäre Datei und ersetzt path erst danach, sodass ein Absturz beim Schreiben den letzten Checkpoint nicht zerstört
+    void write(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        int maxSize = Math.max(startGenome.getSerializedSize(), mostFitGenome.getSerializedSize());
+
+        for (Genome genome : representatives) {
+            maxSize = Math.max(maxSize, genome.getSerializedSize());
+        }
+
+        for (Genome genome : genomes) {
+            maxSize = Math.max(maxSize, genome.getSerializedSize());
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(maxSize + Integer.BYTES + 1, 9 * Integer.BYTES)).order(ByteOrder.LITTLE_ENDIAN);
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(generation);
+            buffer.putLong(seed);
+            buffer.put((byte) (deterministic ? 1 : 0));
+            buffer.putInt(populationSize);
+            buffer.putInt(nextConnectionInnovation);
+            buffer.putInt(nextNeuronId);
+            flush(channel, buffer);
+
+            writeGenome(channel, buffer, startGenome);
+            writeGenome(channel, buffer, mostFitGenome);
+
+            buffer.putInt(representatives.size());
+            flush(channel, buffer);
+
+            for (int s = 0; s < representatives.size(); s++) {
+                writeGenome(channel, buffer, representatives.get(s));
+                buffer.putInt(speciesAges[s]);
+                buffer.putDouble(speciesBestFitness[s]);
+                buffer.putInt(speciesStagnation[s]);
+                flush(channel, buffer);
+            }
+
+            buffer.putInt(genomes.size());
+            flush(channel, buffer);
+
+            for (int i = 0; i < genomes.size(); i++) {
+                buffer.putInt(speciesIndices[i]);
+                buffer.put((byte) (elites[i] ? 1 : 0));
+                writeGenome(channel, buffer, genomes.get(i));
+            }
+
+            channel.force(false);
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Liest einen mit write() geschriebenen Checkpoint
+    static Checkpoint read(Path path) throws IOException {
+        ByteBuffer buffer;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Die Datei " + path + " ist zu groß!");
+            }
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Die Datei " + path + " ist kein Checkpoint!");
+            }
+
+            int version = buffer.getInt();
+
+            if (version != VERSION) {
+                throw new IOException("Die Version " + version + " von " + path + " wird nicht unterstützt!");
+            }
+
+            int generation = buffer.getInt();
+            long seed = buffer.getLong();
+            boolean deterministic = buffer.get() != 0;
+            int populationSize = buffer.getInt();
+            int nextConnectionInnovation = buffer.getInt();
+            int nextNeuronId = buffer.getInt();
+            Genome startGenome = Genome.readFrom(buffer);
+            Genome mostFitGenome = Genome.readFrom(buffer);
+
+            int numSpecies = buffer.getInt();
+
+            if (numSpecies < 0 || numSpecies > buffer.remaining()) {
+                throw new IOException("Ungültige Anzahl an Spezies in " + path + "!");
+            }
+            List<Genome> representatives = new ArrayList<>(numSpecies);
+            int[] speciesAges = new int[numSpecies];
+            double[] speciesBestFitness = new double[numSpecies];
+            int[] speciesStagnation = new int[numSpecies];
+
+            for (int s = 0; s < numSpecies; s++) {
+                representatives.add(Genome.readFrom(buffer));
+                speciesAges[s] = buffer.getInt();
+                speciesBestFitness[s] = buffer.getDouble();
+                speciesStagnation[s] = buffer.getInt();
+            }
+
+            int numGenomes = buffer.getInt();
+
+            if (numGenomes < 0 || numGenomes > buffer.remaining()) {
+                throw new IOException("Ungültige Anzahl an Genomen in " + path + "!");
+            }
+            List<Genome> genomes = new ArrayList<>(numGenomes);
+            int[] speciesIndices = new int[numGenomes];
+            boolean[] elites = new boolean[numGenomes];
+
+            for (int i = 0; i < numGenomes; i++) {
+                speciesIndices[i] = buffer.getInt();
+
+                if (speciesIndices[i] < -1 || speciesIndices[i] >= numSpecies) {
+                    throw new IOException("Ungültige Spezies in " + path + "!");
+                }
+
+                elites[i] = buffer.get() != 0;
+
+                genomes.add(Genome.readFrom(buffer));
+            }
+
+            return new Checkpoint(generation, seed, deterministic, populationSize, nextConnectionInnovation, nextNeuronId,
+                    startGenome, mostFitGenome, representatives, speciesAges, speciesBestFitness, speciesStagnation, genomes, speciesIndices, elites);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | BufferUnderflowException exception) {
+            throw new IOException("Die Datei " + path + " ist beschädigt!", exception);
+        }
+    }
+
+    private static void writeGenome(FileChannel channel, ByteBuffer buffer, Genome genome) throws IOException {
+        genome.writeTo(buffer);
+        flush(channel, buffer);
+    }
+
+    // Schreibt den Inhalt von buffer in channel und leert buffer danach
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+}
@@ -0,0 +1,13 @@
+package de.nkilders.neat;
+
+/**
+ * @author Noah Kilders
+ */
+// Für ein einzelnes Genom erzeugter Code, der die Netzausgabe ohne Schleifen über Verbindungen berechnet (siehe Genome.compile())
+// Wie bei Genome.query() lesen rekurrente Verbindungen immer 0
+// Implementierungen sind unveränderlich und dürfen gleichzeitig aus mehreren Threads abgefragt werden
+@FunctionalInterface
+public interface CompiledGenome {
+    // Berechnet die Netzausgabe zu den übergebenen Eingabewerten
+    double[] query(double[] inputValues);
+}
@@ -24,4 +24,18 @@ public class Config {
 
     // Compatibility Threshold
     public static double COMPATIBILITY_THRESHOLD = 3.0D;
+
+    // Zuerst prüfen, ob ein Genom noch in die Spezies seines Elternteils passt, bevor alle Spezies durchsucht werden
+    public static boolean INCREMENTAL_SPECIATION = false;
+
+    // Anzahl der besten Genome jeder Spezies, die unverändert und ohne erneute Bewertung in die nächste Generation übernommen werden
+    public static int ELITISM = 1;
+    // Mindestgröße einer Spezies, damit ihre besten Genome übernommen werden
+    public static int ELITISM_MIN_SPECIES_SIZE = 5;
+
+    // Anzahl der Generationen ohne Verbesserung, nach denen eine Spezies keine Nachkommen mehr erhält (die beste Spezies bleibt immer erhalten)
+    public static int STAGNATION_LIMIT = 15;
+
+    // Verbindungen erlauben, die eine Schleife schließen; diese lesen die Aktivierung des vorherigen Zeitschritts (siehe NetworkState)
+    public static boolean RECURRENT_CONNECTIONS = false;
 }
\ No newline at end of file
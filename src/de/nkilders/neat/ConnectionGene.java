@@ -9,6 +9,9 @@ public class ConnectionGene {
     private double weight;
     private boolean expressed;
     private final int innovationNumber;
+    // Genom, in dem die Verbindung gespeichert ist, oder null
+    // Gewicht und Aktivierung werden dann direkt im Genom gelesen und geschrieben
+    private Genome genome;
 
     public ConnectionGene(int inputNeuronId, int outputNeuronId, double weight, boolean expressed, int innovationNumber) {
         this.inputNeuron = inputNeuronId;
@@ -26,9 +29,14 @@ public class ConnectionGene {
         this(inputNeuron, outputNeuron, weight, expressed, Counters.getNextConnectionInnovation());
     }
 
+    // Fasst Eingabe- und Ausgabeneuron zu einem Schlüssel zusammen
+    public static long key(int inputNeuron, int outputNeuron) {
+        return ((long) inputNeuron << 32) | (outputNeuron & 0xFFFFFFFFL);
+    }
+
     // Kopiert die Verbindung
     public ConnectionGene copy() {
-        return new ConnectionGene(inputNeuron, outputNeuron, weight, expressed, innovationNumber);
+        return new ConnectionGene(inputNeuron, outputNeuron, getWeight(), isExpressed(), innovationNumber);
     }
 
     public int getInputNeuron() {
@@ -40,22 +48,45 @@ public class ConnectionGene {
     }
 
     public double getWeight() {
-        return weight;
+        int index = indexInGenome();
+        return index >= 0 ? genome.getGeneWeight(index) : weight;
     }
 
     public void setWeight(double weight) {
         this.weight = weight;
+
+        int index = indexInGenome();
+
+        if (index >= 0) {
+            genome.setGeneWeight(index, weight);
+        }
     }
 
     public boolean isExpressed() {
-        return expressed;
+        int index = indexInGenome();
+        return index >= 0 ? genome.isGeneExpressed(index) : expressed;
     }
 
     public void setExpressed(boolean expressed) {
         this.expressed = expressed;
+
+        int index = indexInGenome();
+
+        if (index >= 0) {
+            genome.setGeneExpressed(index, expressed);
+        }
     }
 
     public int getInnovationNumber() {
         return innovationNumber;
     }
+
+    void setGenome(Genome genome) {
+        this.genome = genome;
+    }
+
+    // Gibt den Index des Gens im Genom zurück, oder einen negativen Wert
+    private int indexInGenome() {
+        return genome == null ? -1 : genome.indexOfGene(innovationNumber);
+    }
 }
\ No newline at end of file
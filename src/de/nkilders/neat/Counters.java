@@ -1,18 +1,98 @@
 package de.nkilders.neat;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * @author Noah Kilders
  */
+// Vergibt Innovation-Numbers und Neuronen-IDs, jede NEAT-Instanz hat ihre eigenen Zähler
+// Alle Methoden sind threadsicher, sodass Genome parallel mutiert werden können
 public class Counters {
-    private static int connectionInnovation = 0;
+    // Zähler für Genome und Neuronen, die ohne NEAT-Instanz erstellt werden
+    private static final Counters DEFAULT = new Counters();
 
-    // Gibt die nächste Innovation-Number zurück
+    private final AtomicInteger connectionInnovation;
+    private final AtomicInteger neuronId;
+
+    // Register der aktuellen Generation, damit dieselbe strukturelle Mutation in verschiedenen Genomen dieselbe Nummer erhält
+    // <(Eingabeneuron, Ausgabeneuron), Innovation-Number>
+    private final Map<Long, Integer> connectionInnovations;
+    // <Innovation-Number der geteilten Verbindung, Neuronen-ID>
+    private final Map<Integer, Integer> splitNeuronIds;
+
+    public Counters() {
+        this(0, 0);
+    }
+
+    public Counters(int nextConnectionInnovation, int nextNeuronId) {
+        this.connectionInnovation = new AtomicInteger(nextConnectionInnovation);
+        this.neuronId = new AtomicInteger(nextNeuronId);
+        this.connectionInnovations = new ConcurrentHashMap<>();
+        this.splitNeuronIds = new ConcurrentHashMap<>();
+    }
+
+    // Gibt die Zähler für Genome und Neuronen zurück, die ohne NEAT-Instanz erstellt werden
+    public static Counters getDefault() {
+        return DEFAULT;
+    }
+
+    // Gibt die nächste Innovation-Number der Standard-Zähler zurück
     public static int getNextConnectionInnovation() {
-        return connectionInnovation++;
+        return DEFAULT.nextConnectionInnovation();
     }
 
-    private static int neuronId = 0;
+    // Gibt die nächste Neuronen-ID der Standard-Zähler zurück
+    public static int getNextNeuronId() {
+        return DEFAULT.nextNeuronId();
+    }
+
+    // Gibt die nächste Innovation-Number zurück
+    public int nextConnectionInnovation() {
+        return connectionInnovation.getAndIncrement();
+    }
 
     // Gibt die nächste Neuronen-ID zurück
-    public static int getNextNeuronId() { return neuronId++; }
+    public int nextNeuronId() {
+        return neuronId.getAndIncrement();
+    }
+
+    // Stellt sicher, dass die übergebene, von außen gewählte Neuronen-ID nicht mehr von nextNeuronId() vergeben wird
+    public void reserveNeuronId(int id) {
+        neuronId.accumulateAndGet(id + 1, Math::max);
+    }
+
+    // Stellt sicher, dass die übergebene, von außen gewählte Innovation-Number nicht mehr von nextConnectionInnovation() vergeben wird
+    public void reserveConnectionInnovation(int innovationNumber) {
+        connectionInnovation.accumulateAndGet(innovationNumber + 1, Math::max);
+    }
+
+    // Gibt die nächste Innovation-Number zurück, ohne diese zu vergeben
+    public int peekNextConnectionInnovation() {
+        return connectionInnovation.get();
+    }
+
+    // Gibt die nächste Neuronen-ID zurück, ohne diese zu vergeben
+    public int peekNextNeuronId() {
+        return neuronId.get();
+    }
+
+    // Gibt die Innovation-Number einer neuen Verbindung zwischen den beiden Neuronen zurück
+    // Wurde die Verbindung in dieser Generation schon in einem anderen Genom erzeugt, wird deren Nummer wiederverwendet
+    public int getConnectionInnovation(int inputNeuron, int outputNeuron) {
+        return connectionInnovations.computeIfAbsent(ConnectionGene.key(inputNeuron, outputNeuron), k -> nextConnectionInnovation());
+    }
+
+    // Gibt die ID des Neurons zurück, das beim Teilen der Verbindung mit der übergebenen Innovation-Number entsteht
+    // Wurde die Verbindung in dieser Generation schon in einem anderen Genom geteilt, wird dessen ID wiederverwendet
+    public int getSplitNeuronId(int connectionInnovation) {
+        return splitNeuronIds.computeIfAbsent(connectionInnovation, k -> nextNeuronId());
+    }
+
+    // Leert das Register zu Beginn einer neuen Generation
+    public void startGeneration() {
+        connectionInnovations.clear();
+        splitNeuronIds.clear();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package de.nkilders.neat;
+
+import java.util.List;
+
+/**
+ * @author Noah Kilders
+ */
+// Bewertet die Genome einer Generation anstelle von NEAT.evaluateGenome(), z.B. auf anderen Rechnern
+public interface EvaluationBackend extends AutoCloseable {
+    // Bewertet alle Genome und setzt deren Fitness, kehrt erst zurück, wenn alle Genome bewertet wurden
+    // Die Genome dürfen dabei nicht verändert werden
+    void evaluate(List<Genome> genomes);
+
+    // Gibt alle Ressourcen frei, danach kann nicht mehr bewertet werden
+    @Override
+    void close();
+}
@@ -0,0 +1,188 @@
+package de.nkilders.neat;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Noah Kilders
+ */
+// Worker-Prozess für SocketEvaluationBackend: verbindet sich mit dem Backend und bewertet die erhaltenen Genome mit einer FitnessFunction
+//
+// Aufruf: java -cp ... de.nkilders.neat.EvaluationWorker <Host> <Port> <Klasse der FitnessFunction> [Anzahl der Verbindungen]
+// Jede Verbindung läuft in einem eigenen Thread und holt sich ihre Pakete selbst. Bricht eine Verbindung ab, wird sie
+// neu aufgebaut; ist das Backend nicht mehr erreichbar, beendet sich der Worker.
+// Während ein Paket bewertet wird, sendet die Verbindung in dem vom Backend vorgegebenen Abstand Lebenszeichen.
+// Bricht das Backend das Paket ab, weil eine andere Verbindung es schneller bewertet hat, werden die übrigen Genome übersprungen.
+public class EvaluationWorker implements Runnable {
+    // Anzahl der Verbindungsversuche, bevor der Worker aufgibt, und die Wartezeit dazwischen
+    private static final int MAX_ATTEMPTS = 20;
+    private static final long RETRY_MILLIS = 250;
+    // Sendet die Lebenszeichen aller Verbindungen dieses Prozesses
+    private static final ScheduledExecutorService HEARTBEATS = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "NEAT-Worker-Heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String host;
+    private final int port;
+    private final FitnessFunction fitnessFunction;
+
+    public EvaluationWorker(String host, int port, FitnessFunction fitnessFunction) {
+        this.host = host;
+        this.port = port;
+        this.fitnessFunction = fitnessFunction;
+    }
+
+    public static void main(String[] args) throws ReflectiveOperationException {
+        if (args.length < 3) {
+            System.err.println("Aufruf: EvaluationWorker <Host> <Port> <Klasse der FitnessFunction> [Anzahl der Verbindungen]");
+            System.exit(1);
+        }
+
+        String host = args[0];
+        int port = Integer.parseInt(args[1]);
+        Class<? extends FitnessFunction> type = Class.forName(args[2]).asSubclass(FitnessFunction.class);
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < threads; i++) {
+            // Jede Verbindung erhält eine eigene FitnessFunction, sodass diese nicht thread-sicher sein muss
+            new Thread(new EvaluationWorker(host, port, type.getConstructor().newInstance()), "NEAT-Worker-" + i).start();
+        }
+    }
+
+    // Baut die Verbindung auf und bewertet Pakete, bis das Backend nicht mehr erreichbar ist
+    @Override
+    public void run() {
+        int attempts = 0;
+
+        while (attempts < MAX_ATTEMPTS) {
+            try (Socket socket = new Socket(host, port)) {
+                attempts = 0;
+                serve(socket);
+            } catch (IOException exception) {
+                attempts++;
+            }
+
+            try {
+                Thread.sleep(RETRY_MILLIS);
+            } catch (InterruptedException exception) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        byte[] bytes = new byte[0];
+
+        out.writeInt(SocketEvaluationBackend.MAGIC);
+        out.writeInt(SocketEvaluationBackend.VERSION);
+        out.flush();
+
+        int heartbeatMillis = in.readInt();
+
+        while (true) {
+            int type = in.readInt();
+
+            if (type == SocketEvaluationBackend.CANCEL) {
+                // Abbruch eines Pakets, das bereits vollständig bewertet wurde
+                in.readInt();
+                continue;
+            }
+
+            if (type != SocketEvaluationBackend.BATCH) {
+                throw new IOException("Unbekannte Nachricht!");
+            }
+
+            int id = in.readInt();
+            int count = in.readInt();
+            Genome[] genomes = new Genome[count];
+
+            for (int i = 0; i < count; i++) {
+                int size = in.readInt();
+
+                if (bytes.length < size) {
+                    bytes = new byte[size];
+                }
+
+                in.readFully(bytes, 0, size);
+                genomes[i] = Genome.readFrom(ByteBuffer.wrap(bytes, 0, size).order(ByteOrder.LITTLE_ENDIAN));
+            }
+
+            ScheduledFuture<?> heartbeat = HEARTBEATS.scheduleAtFixedRate(() -> sendHeartbeat(out), heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+            double[] fitness = new double[count];
+            RuntimeException error = null;
+            boolean cancelled = false;
+
+            try {
+                for (int i = 0; i < count && !(cancelled = isCancelled(in, id)); i++) {
+                    fitness[i] = fitnessFunction.evaluate(genomes[i]);
+                }
+            } catch (RuntimeException exception) {
+                error = exception;
+            } finally {
+                heartbeat.cancel(false);
+            }
+
+            // Die Lebenszeichen werden aus einem anderen Thread gesendet und dürfen nicht mitten in die Antwort geschrieben werden
+            synchronized (out) {
+                out.writeInt(SocketEvaluationBackend.RESULT);
+                out.writeInt(id);
+
+                if (cancelled) {
+                    out.writeInt(SocketEvaluationBackend.STATUS_CANCELLED);
+                } else if (error == null) {
+                    out.writeInt(SocketEvaluationBackend.STATUS_OK);
+                    out.writeInt(count);
+
+                    for (double value : fitness) {
+                        out.writeDouble(value);
+                    }
+                } else {
+                    out.writeInt(SocketEvaluationBackend.STATUS_ERROR);
+                    out.writeUTF(String.valueOf(error));
+                }
+
+                out.flush();
+            }
+        }
+    }
+
+    // Liest die bereits eingetroffenen Nachrichten, ohne zu blockieren, und gibt zurück, ob das Paket mit der übergebenen ID abgebrochen wurde
+    // Während ein Paket bewertet wird, sendet das Backend nur CANCEL, Abbrüche früherer Pakete werden ignoriert
+    private static boolean isCancelled(DataInputStream in, int id) throws IOException {
+        while (in.available() >= 2 * Integer.BYTES) {
+            if (in.readInt() != SocketEvaluationBackend.CANCEL) {
+                throw new IOException("Unbekannte Nachricht!");
+            }
+
+            if (in.readInt() == id) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // Teilt dem Backend mit, dass die Verbindung noch ein Paket bewertet
+    private static void sendHeartbeat(DataOutputStream out) {
+        synchronized (out) {
+            try {
+                out.writeInt(SocketEvaluationBackend.HEARTBEAT);
+                out.flush();
+            } catch (IOException ignored) {
+                // Der Abbruch der Verbindung wird beim Senden der Antwort bemerkt
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package de.nkilders.neat;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Noah Kilders
+ */
+// Merkt sich die Fitness der zuletzt bewerteten Genome, damit unveränderte Kopien nicht erneut bewertet werden müssen
+// Nur für deterministische Bewertungen geeignet, die für gleiche Netze immer dieselbe Fitness liefern
+// Werden mehr als maximumSize Genome gespeichert, wird das am längsten nicht mehr abgefragte verworfen (LRU)
+public class FitnessCache {
+    private final int maximumSize;
+    private final Map<Key, Double> entries;
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    public FitnessCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Der Cache muss mindestens ein Genom aufnehmen können!");
+        }
+
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Double> eldest) {
+                return size() > FitnessCache.this.maximumSize;
+            }
+        };
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    // Gibt die gespeicherte Fitness eines Genoms mit gleichem Inhalt zurück, oder null
+    public Double get(Genome genome) {
+        Double fitness;
+
+        synchronized (entries) {
+            fitness = entries.get(new Key(genome));
+        }
+
+        (fitness != null ? hits : misses).incrementAndGet();
+
+        return fitness;
+    }
+
+    // Speichert die Fitness eines Genoms
+    // Gespeichert wird eine Kopie, die sich ihre Arrays mit genome teilt, solange dieses nicht verändert wird
+    public void put(Genome genome, double fitness) {
+        Key key = new Key(genome.copy());
+
+        synchronized (entries) {
+            entries.put(key, fitness);
+        }
+    }
+
+    // Entfernt alle gespeicherten Genome
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    // Gibt die Anzahl der gespeicherten Genome zurück
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    // Gibt die Anzahl der Abfragen zurück, für die eine Fitness gespeichert war
+    public long getHits() {
+        return hits.get();
+    }
+
+    // Gibt die Anzahl der Abfragen zurück, für die keine Fitness gespeichert war
+    public long getMisses() {
+        return misses.get();
+    }
+
+    // Schlüssel aus Hash und Genom, bei gleichem Hash wird der Inhalt verglichen
+    private static class Key {
+        private final long hash;
+        private final Genome genome;
+
+        private Key(Genome genome) {
+            this.hash = genome.contentHash();
+            this.genome = genome;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return hash == key.hash && genome.hasSameContent(key.genome);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package de.nkilders.neat;
+
+/**
+ * @author Noah Kilders
+ */
+// Bewertet ein Genom in einem EvaluationWorker
+// Implementierungen brauchen einen öffentlichen Konstruktor ohne Parameter, da sie im Worker über ihren Klassennamen erstellt werden
+@FunctionalInterface
+public interface FitnessFunction {
+    double evaluate(Genome genome);
+}
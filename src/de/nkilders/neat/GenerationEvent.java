@@ -0,0 +1,52 @@
+package de.nkilders.neat;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * @author Noah Kilders
+ */
+// JFR-Event für eine ganze Generation, wird nur bei laufender Aufzeichnung erfasst
+@Name("de.nkilders.neat.Generation")
+@Label("NEAT Generation")
+@Category("NEAT")
+@Description("Eine Generation von NEAT.processGeneration()")
+class GenerationEvent extends Event {
+    @Label("Generation")
+    int generation;
+
+    @Label("Number of Species")
+    int numSpecies;
+
+    @Label("Best Fitness")
+    double bestFitness;
+
+    @Label("Mean Fitness")
+    double meanFitness;
+
+    @Label("Mean Connections")
+    double meanConnections;
+
+    @Label("Number of Evaluations")
+    int numEvaluations;
+
+    @Label("Speciation")
+    @Timespan(Timespan.NANOSECONDS)
+    long speciation;
+
+    @Label("Evaluation")
+    @Timespan(Timespan.NANOSECONDS)
+    long evaluation;
+
+    @Label("Selection")
+    @Timespan(Timespan.NANOSECONDS)
+    long selection;
+
+    @Label("Reproduction")
+    @Timespan(Timespan.NANOSECONDS)
+    long reproduction;
+}
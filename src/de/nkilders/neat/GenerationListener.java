@@ -0,0 +1,11 @@
+package de.nkilders.neat;
+
+/**
+ * @author Noah Kilders
+ */
+// Wird nach jeder Generation mit deren Kennzahlen benachrichtigt
+// Der Aufruf erfolgt auf dem Thread, der processGeneration() aufruft, und verzögert daher die nächste Generation
+@FunctionalInterface
+public interface GenerationListener {
+    void generationProcessed(GenerationStats stats);
+}
@@ -0,0 +1,132 @@
+package de.nkilders.neat;
+
+/**
+ * @author Noah Kilders
+ */
+// Kennzahlen einer Generation, die Zeiten sind in Nanosekunden angegeben
+// Fitness und Größen beziehen sich auf die bewerteten Genome der Generation, nicht auf deren Kinder
+public class GenerationStats {
+    private final int generation;
+    private final int populationSize;
+    private final int numSpecies;
+    // Anzahl der tatsächlich bewerteten Genome, ohne übernommene Champions und Treffer im Fitness-Cache
+    private final int numEvaluations;
+
+    private final long speciationNanos;
+    private final long evaluationNanos;
+    private final long selectionNanos;
+    private final long reproductionNanos;
+
+    private final double bestFitness;
+    private final double meanFitness;
+
+    private final int minNeurons;
+    private final double meanNeurons;
+    private final int maxNeurons;
+    private final int minConnections;
+    private final double meanConnections;
+    private final int maxConnections;
+
+    GenerationStats(int generation, int populationSize, int numSpecies, int numEvaluations,
+                    long speciationNanos, long evaluationNanos, long selectionNanos, long reproductionNanos,
+                    double bestFitness, double meanFitness,
+                    int minNeurons, double meanNeurons, int maxNeurons,
+                    int minConnections, double meanConnections, int maxConnections) {
+        this.generation = generation;
+        this.populationSize = populationSize;
+        this.numSpecies = numSpecies;
+        this.numEvaluations = numEvaluations;
+        this.speciationNanos = speciationNanos;
+        this.evaluationNanos = evaluationNanos;
+        this.selectionNanos = selectionNanos;
+        this.reproductionNanos = reproductionNanos;
+        this.bestFitness = bestFitness;
+        this.meanFitness = meanFitness;
+        this.minNeurons = minNeurons;
+        this.meanNeurons = meanNeurons;
+        this.maxNeurons = maxNeurons;
+        this.minConnections = minConnections;
+        this.meanConnections = meanConnections;
+        this.maxConnections = maxConnections;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public int getPopulationSize() {
+        return populationSize;
+    }
+
+    public int getNumSpecies() {
+        return numSpecies;
+    }
+
+    public int getNumEvaluations() {
+        return numEvaluations;
+    }
+
+    public long getSpeciationNanos() {
+        return speciationNanos;
+    }
+
+    public long getEvaluationNanos() {
+        return evaluationNanos;
+    }
+
+    public long getSelectionNanos() {
+        return selectionNanos;
+    }
+
+    public long getReproductionNanos() {
+        return reproductionNanos;
+    }
+
+    // Gibt die Dauer aller Phasen zusammen zurück
+    public long getTotalNanos() {
+        return speciationNanos + evaluationNanos + selectionNanos + reproductionNanos;
+    }
+
+    // Gibt die Anzahl der tatsächlich durchgeführten Bewertungen pro Sekunde zurück
+    public double getEvaluationsPerSecond() {
+        return evaluationNanos == 0 ? 0.0D : numEvaluations * 1e9D / evaluationNanos;
+    }
+
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    public double getMeanFitness() {
+        return meanFitness;
+    }
+
+    public int getMinNeurons() {
+        return minNeurons;
+    }
+
+    public double getMeanNeurons() {
+        return meanNeurons;
+    }
+
+    public int getMaxNeurons() {
+        return maxNeurons;
+    }
+
+    public int getMinConnections() {
+        return minConnections;
+    }
+
+    public double getMeanConnections() {
+        return meanConnections;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GenerationStats{generation=%s, numSpecies=%s, bestFitness=%s, meanFitness=%s, meanConnections=%s, totalMillis=%s}",
+                generation, numSpecies, bestFitness, meanFitness, meanConnections, getTotalNanos() / 1_000_000L);
+    }
+}
@@ -6,171 +6,284 @@ import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * @author Noah Kilders
  */
+// Neuronen und Connection-Gene werden in primitiven Arrays gespeichert, Neuron- und ConnectionGene-Objekte sind nur Sichten darauf
 public class Genome {
+    // Nur für die zufällige Anordnung der versteckten Neuronen in print()
     private static final Random RANDOM = new Random();
-
-    // <Neuron-ID, Neuron>
-    private final Map<Integer, Neuron> neurons;
-    private final List<Neuron> inputNeurons;
-    private final List<Neuron> outputNeurons;
-    // <Connection-Innovation, ConnectionGene>
-    private final Map<Integer, ConnectionGene> connectionGenes;
+    // Zwischenspeicher für updateOrder(), den sich alle Genome eines Threads teilen
+    private static final ThreadLocal<OrderScratch> ORDER_SCRATCH = ThreadLocal.withInitial(OrderScratch::new);
+
+    // Neuronen, aufsteigend nach ID sortiert
+    private int[] neuronIds;
+    private Neuron.NeuronType[] neuronTypes;
+    // Position jedes Neurons in der topologischen Reihenfolge
+    private int[] neuronPositions;
+    private int numNeurons;
+    // IDs der Eingabe- und Ausgabeneuronen in der Reihenfolge ihres Hinzufügens
+    private int[] inputIds;
+    private int numInputs;
+    private int[] outputIds;
+    private int numOutputs;
+    // Nächste freie Position in der topologischen Reihenfolge der Neuronen
+    private int nextPosition;
+
+    // Connection-Gene, aufsteigend nach Innovation-Number sortiert
+    private int[] innovations;
+    private int[] geneInputs;
+    private int[] geneOutputs;
+    private double[] weights;
+    private BitSet expressed;
+    private int numGenes;
+    // Schlüssel (Eingabeneuron, Ausgabeneuron) aller Verbindungen
+    private LongHashSet connectionKeys;
+
+    // Nachfolger und Vorgänger jedes Neurons (als Indizes), werden nur bei Bedarf für updateOrder() erstellt
+    private int[] successorStart;
+    private int[] successors;
+    private int[] predecessorStart;
+    private int[] predecessors;
+
+    // Gibt an, welche Arrays noch mit einer Kopie geteilt werden und vor dem Schreiben kopiert werden müssen (Copy-on-Write)
+    private boolean sharedNeurons;
+    private boolean sharedGenes;
+    private boolean sharedWeights;
+    private boolean sharedExpressed;
+
+    // Sichten auf Neuronen und Connection-Gene
+    private final Map<Integer, Neuron> neuronView;
+    private final Map<Integer, ConnectionGene> connectionGeneView;
+
+    // Kompilierte Form für query(), wird bei Änderungen verworfen
+    private volatile Network network;
+
+    // Zähler, aus denen Innovation-Numbers und Neuronen-IDs für Mutationen vergeben werden
+    private Counters counters;
 
     private double fitness;
+    // Spezies, der das Genom (bzw. vor der Spezifizierung sein Elternteil) zugeordnet ist
+    private Species species;
 
     public Genome() {
-        neurons = new HashMap<>();
-        inputNeurons = new ArrayList<>();
-        outputNeurons = new ArrayList<>();
-        connectionGenes = new HashMap<>();
+        neuronIds = new int[8];
+        neuronTypes = new Neuron.NeuronType[8];
+        neuronPositions = new int[8];
+        numNeurons = 0;
+        inputIds = new int[4];
+        numInputs = 0;
+        outputIds = new int[4];
+        numOutputs = 0;
+        nextPosition = 0;
+        innovations = new int[8];
+        geneInputs = new int[8];
+        geneOutputs = new int[8];
+        weights = new double[8];
+        expressed = new BitSet();
+        numGenes = 0;
+        connectionKeys = new LongHashSet();
+        neuronView = new NeuronMap();
+        connectionGeneView = new ConnectionGeneMap();
+        counters = Counters.getDefault();
+        fitness = 0.0D;
+    }
+
+    // Erstellt eine Kopie von genome, die sich alle Arrays mit genome teilt, bis eines der beiden Genome verändert wird
+    // Die Verbindungen sind bereits schleifenfrei und müssen nicht erneut überprüft werden
+    private Genome(Genome genome) {
+        neuronIds = genome.neuronIds;
+        neuronTypes = genome.neuronTypes;
+        neuronPositions = genome.neuronPositions;
+        numNeurons = genome.numNeurons;
+        inputIds = genome.inputIds;
+        numInputs = genome.numInputs;
+        outputIds = genome.outputIds;
+        numOutputs = genome.numOutputs;
+        nextPosition = genome.nextPosition;
+        innovations = genome.innovations;
+        geneInputs = genome.geneInputs;
+        geneOutputs = genome.geneOutputs;
+        weights = genome.weights;
+        expressed = genome.expressed;
+        numGenes = genome.numGenes;
+        connectionKeys = genome.connectionKeys;
+        sharedNeurons = genome.sharedNeurons = true;
+        sharedGenes = genome.sharedGenes = true;
+        sharedWeights = genome.sharedWeights = true;
+        sharedExpressed = genome.sharedExpressed = true;
+        neuronView = new NeuronMap();
+        connectionGeneView = new ConnectionGeneMap();
+        // Die kompilierte Form ist unveränderlich und kann ebenfalls geteilt werden
+        network = genome.network;
+        counters = genome.counters;
         fitness = 0.0D;
     }
 
     // Kopiert das Genom
     public Genome copy() {
-        Genome newGenome = new Genome();
-
-        for (Neuron neuron : neurons.values()) {
-            newGenome.addNeuron(neuron.copy());
-        }
-
-        for (ConnectionGene connection : connectionGenes.values()) {
-            newGenome.addConnectionGene(connection.copy());
-        }
-
-        return newGenome;
+        return new Genome(this);
     }
 
     // Berechnet die Netzausgabe zu den übergebenen Eingabewerten
+    // Darf gleichzeitig aus mehreren Threads aufgerufen werden, solange das Genom dabei nicht verändert wird
     public double[] query(double[] inputValues) {
-        if (inputValues.length != inputNeurons.size()) {
-            throw new IllegalArgumentException("Brauche " + inputNeurons.size() + " Eingabewert(e)!");
-        }
-
-        for (int i = 0; i < inputNeurons.size(); i++) {
-            Neuron inputNeuron = inputNeurons.get(i);
-
-            inputNeuron.addInput(inputValues[i]);
-            fireNeuron(inputNeuron);
-        }
-
-        boolean done = false;
-        while (!done) {
-            done = true;
+        double[] output = new double[numOutputs];
+        query(inputValues, output);
+        return output;
+    }
 
-            for (Neuron neuron : neurons.values()) {
-                if (neuron.getType() == Neuron.NeuronType.HIDDEN) {
-                    if (neuron.isReadyToFire() && !neuron.hasFired()) {
-                        fireNeuron(neuron);
-                    }
+    // Berechnet die Netzausgabe zu den übergebenen Eingabewerten und schreibt diese in output, ohne neuen Speicher anzulegen
+    public void query(double[] inputValues, double[] output) {
+        getNetwork().query(inputValues, output);
+    }
 
-                    if (!neuron.hasFired()) {
-                        done = false;
-                    }
-                }
-            }
-        }
+    // Berechnet die Netzausgaben zu numSamples Eingabezeilen, die hintereinander in inputs liegen, und schreibt diese hintereinander in outputs
+    public void queryBatch(double[] inputs, int numSamples, double[] outputs) {
+        getNetwork().queryBatch(inputs, numSamples, outputs);
+    }
 
-        for (Neuron neuron : neurons.values()) {
-            neuron.setHasFired(false);
-        }
+    // Wie queryBatch(double[], int, double[]), liest und schreibt aber ab der aktuellen Position der Buffer
+    public void queryBatch(DoubleBuffer inputs, int numSamples, DoubleBuffer outputs) {
+        getNetwork().queryBatch(inputs, numSamples, outputs);
+    }
 
-        double[] output = new double[outputNeurons.size()];
+    // Gibt die kompilierte Form des Genoms zurück und erstellt diese bei Bedarf
+    public Network getNetwork() {
+        Network network = this.network;
 
-        for (int o = 0; o < outputNeurons.size(); o++) {
-            output[o] = sigmoid(outputNeurons.get(o).getInput());
+        // Erstellen mehrere Threads gleichzeitig die kompilierte Form, gewinnt einfach die zuletzt erstellte
+        if (network == null) {
+            network = new Network(this);
+            this.network = network;
         }
 
-        return output;
+        return network;
     }
 
-    // Aktiviert ein Neuron, sofern dieses alle Eingaben erhalten hat
-    private void fireNeuron(Neuron neuron) {
-        if (neuron.isReadyToFire()) {
-            double output = neuron.getType() == Neuron.NeuronType.INPUT ? neuron.getInput() : sigmoid(neuron.getInput());
-
-            for (ConnectionGene connection : neuron.getOutputConnections()) {
-                if (connection.isExpressed()) {
-                    neurons.get(connection.getOutputNeuron()).addInput(output * connection.getWeight());
-                }
-            }
+    // Übersetzt das Genom in eigenen Bytecode, der die Netzausgabe ohne Schleifen berechnet, z.B. für häufig abgefragte Champions
+    // Das Ergebnis gehört zum aktuellen Stand des Genoms, spätere Änderungen wirken sich nicht auf es aus
+    public CompiledGenome compile() {
+        return GenomeCompiler.compile(this);
+    }
 
-            neuron.resetInput();
-            neuron.setHasFired(true);
-        }
+    // Erstellt einen Zustand für die schrittweise Berechnung von Zeitreihen mit rekurrenten Verbindungen
+    // Der Zustand gehört zur aktuellen kompilierten Form, spätere Änderungen am Genom wirken sich nicht auf ihn aus
+    public NetworkState newState() {
+        return getNetwork().newState();
     }
 
-    // Aktivierungsfunktion
-    private double sigmoid(double x) {
-        return x / (1D + Math.abs(x));
+    // Verwirft die kompilierte Form, nachdem sich Neuronen, Verbindungen oder Gewichte geändert haben
+    void invalidateNetwork() {
+        network = null;
     }
 
     // Mutiert das Genom
     public void mutate() {
-        // Gewichte mutieren
-        if (Math.random() <= Config.WEIGHT_MUTATION_CHANCE) {
-            for (ConnectionGene c : connectionGenes.values()) {
-                if (Math.random() <= Config.WEIGHT_PERTURBED_CHANCE) {
+        mutate(ThreadLocalRandom.current());
+    }
+
+    // Mutiert das Genom mit den Zufallszahlen aus random
+    public void mutate(RandomGenerator random) {
+        mutateWeights(random);
+        mutateStructure(random);
+    }
+
+    // Mutiert nur die Gewichte, entspricht zusammen mit einem anschließenden Aufruf von mutateStructure() mit demselben random einem Aufruf von mutate()
+    public void mutateWeights(RandomGenerator random) {
+        if (random.nextDouble() <= Config.WEIGHT_MUTATION_CHANCE) {
+            writeWeights();
+
+            for (int i = 0; i < numGenes; i++) {
+                if (random.nextDouble() <= Config.WEIGHT_PERTURBED_CHANCE) {
                     // Gewicht stören
-                    c.setWeight(c.getWeight() * ((Math.random() * 4.0D) - 2.0D));
+                    weights[i] *= (random.nextDouble() * 4.0D) - 2.0D;
                 } else {
                     // neues Gewicht
-                    c.setWeight((Math.random() * 4.0D) - 2.0D);
+                    weights[i] = (random.nextDouble() * 4.0D) - 2.0D;
                 }
             }
+
+            invalidateNetwork();
         }
+    }
 
+    // Führt mit den Zufallszahlen aus random gegebenenfalls eine Verbindungs- und eine Neuronmutation durch
+    public void mutateStructure(RandomGenerator random) {
         // addConnectionMutation()
-        if (Math.random() <= Config.ADD_CONNECTION_MUTATION_CHANCE) {
-            addConnectionMutation();
+        if (random.nextDouble() <= Config.ADD_CONNECTION_MUTATION_CHANCE) {
+            addConnectionMutation(random);
         }
 
         // addNeuronMutation()
-        if (Math.random() <= Config.ADD_NEURON_MUTATION_CHANCE) {
-            addNeuronMutation();
+        if (random.nextDouble() <= Config.ADD_NEURON_MUTATION_CHANCE) {
+            addNeuronMutation(random);
         }
     }
 
     // Führt eine Verbindungsmutation durch
     public void addConnectionMutation() {
-        if (neurons.size() >= 2) {
+        addConnectionMutation(ThreadLocalRandom.current());
+    }
+
+    // Führt eine Verbindungsmutation mit den Zufallszahlen aus random durch
+    public void addConnectionMutation(RandomGenerator random) {
+        if (numNeurons >= 2) {
             for (int i = 0; i < 10; i++) {
-                List<Neuron> list = new ArrayList<>(neurons.values());
-                Neuron neuron1 = list.get(RANDOM.nextInt(neurons.size()));
-                Neuron neuron2 = list.get(RANDOM.nextInt(neurons.size()));
+                int index1 = random.nextInt(numNeurons);
+                int index2 = random.nextInt(numNeurons);
+                int neuron1 = neuronIds[index1];
+                int neuron2 = neuronIds[index2];
+                Neuron.NeuronType type1 = neuronTypes[index1];
+                Neuron.NeuronType type2 = neuronTypes[index2];
+
+                double weight;
+
+                if (Config.RECURRENT_CONNECTIONS) {
+                    // Rekurrente Verbindungen und Schleifen sind erlaubt, nur Eingabeneuronen haben keine eingehenden Verbindungen
+                    if (type1 == Neuron.NeuronType.INPUT && type2 == Neuron.NeuronType.INPUT) {
+                        continue;
+                    }
 
-                // Gibt's die Verbindung schon?
-                boolean connectionExists = false;
+                    if (type2 == Neuron.NeuronType.INPUT) {
+                        neuron2 = neuron1;
+                        neuron1 = neuronIds[index2];
+                    }
 
-                for (ConnectionGene c : connectionGenes.values()) {
-                    if (c.getInputNeuron() == neuron1.getId() && c.getOutputNeuron() == neuron2.getId()
-                            || c.getInputNeuron() == neuron2.getId() && c.getOutputNeuron() == neuron1.getId()) {
-                        connectionExists = true;
+                    if (hasConnection(neuron1, neuron2)) {
+                        continue;
                     }
+
+                    weight = (random.nextDouble() * 4.0D) - 2.0D;
+                    addConnection(neuron1, neuron2, weight, true, counters.getConnectionInnovation(neuron1, neuron2));
+
+                    return;
                 }
 
-                if (connectionExists)
+                // Gibt's die Verbindung schon?
+                if (hasConnection(neuron1, neuron2) || hasConnection(neuron2, neuron1))
                     continue;
 
                 // Verbindung möglich?
-                if (neuron1.getType() != Neuron.NeuronType.HIDDEN && neuron1.getType() == neuron2.getType()) {
+                if (type1 != Neuron.NeuronType.HIDDEN && type1 == type2) {
                     continue;
                 }
 
-                double weight = (Math.random() * 4.0D) - 2.0D;
+                weight = (random.nextDouble() * 4.0D) - 2.0D;
 
-                if (neuron2.getType() == Neuron.NeuronType.INPUT && neuron1.getType() == Neuron.NeuronType.HIDDEN
-                        || neuron2.getType() == Neuron.NeuronType.HIDDEN && neuron1.getType() == Neuron.NeuronType.OUTPUT
-                        || neuron2.getType() == Neuron.NeuronType.INPUT && neuron1.getType() == Neuron.NeuronType.OUTPUT) {
-                    addConnectionGene(new ConnectionGene(neuron2, neuron1, weight, true, Counters.getNextConnectionInnovation()));
+                if (type2 == Neuron.NeuronType.INPUT && type1 == Neuron.NeuronType.HIDDEN
+                        || type2 == Neuron.NeuronType.HIDDEN && type1 == Neuron.NeuronType.OUTPUT
+                        || type2 == Neuron.NeuronType.INPUT && type1 == Neuron.NeuronType.OUTPUT) {
+                    addConnection(neuron2, neuron1, weight, true, counters.getConnectionInnovation(neuron2, neuron1));
                 } else {
-                    addConnectionGene(new ConnectionGene(neuron1, neuron2, weight, true, Counters.getNextConnectionInnovation()));
+                    addConnection(neuron1, neuron2, weight, true, counters.getConnectionInnovation(neuron1, neuron2));
                 }
 
                 return;
@@ -180,132 +293,184 @@ public class Genome {
 
     // Führt eine Neuronmutation durch
     public void addNeuronMutation() {
-        if (connectionGenes.isEmpty()) {
+        addNeuronMutation(ThreadLocalRandom.current());
+    }
+
+    // Führt eine Neuronmutation mit den Zufallszahlen aus random durch
+    public void addNeuronMutation(RandomGenerator random) {
+        if (numGenes == 0) {
             return;
         }
 
-        List<ConnectionGene> list = new ArrayList<>(connectionGenes.values());
-        ConnectionGene connection = list.get(RANDOM.nextInt(connectionGenes.size()));
-        Neuron inputNeuron = neurons.get(connection.getInputNeuron());
-        Neuron outputNeuron = neurons.get(connection.getOutputNeuron());
+        int gene = random.nextInt(numGenes);
+        int inputNeuron = geneInputs[gene];
+        int outputNeuron = geneOutputs[gene];
+        double weight = weights[gene];
+
+        // Neues Neuron erstellen, wobei dieselbe Teilung in anderen Genomen dieser Generation dieselbe ID erhält
+        int newNeuron = counters.getSplitNeuronId(innovations[gene]);
 
-        // Neues Neuron erstellen
-        Neuron newNeuron = new Neuron(Neuron.NeuronType.HIDDEN);
+        // Das Genom hat die Verbindung in dieser Generation bereits geteilt oder enthält die ID schon aus anderen Zählern
+        while (indexOfNeuron(newNeuron) >= 0) {
+            newNeuron = counters.nextNeuronId();
+        }
 
         // Alte Verbindung deaktivieren
-        connection.setExpressed(false);
+        writeExpressed();
+        expressed.clear(gene);
 
         // Neue Verbindungen und Neuron hinzufügen
-        addNeuron(newNeuron);
-        addConnectionGene(new ConnectionGene(inputNeuron, newNeuron, 1, true, Counters.getNextConnectionInnovation()));
-        addConnectionGene(new ConnectionGene(newNeuron, outputNeuron, connection.getWeight(), true, Counters.getNextConnectionInnovation()));
+        insertNeuron(newNeuron, Neuron.NeuronType.HIDDEN);
+        addConnection(inputNeuron, newNeuron, 1, true, counters.getConnectionInnovation(inputNeuron, newNeuron));
+        addConnection(newNeuron, outputNeuron, weight, true, counters.getConnectionInnovation(newNeuron, outputNeuron));
     }
 
     // Kreuzt zwei Genome miteinander
     public static Genome crossover(Genome moreFitParent, Genome lessFitParent) {
-        Genome child = new Genome();
+        return crossover(moreFitParent, lessFitParent, ThreadLocalRandom.current());
+    }
 
-        // Neuronen
-        for (Neuron neuron : moreFitParent.getNeurons().values()) {
-            child.addNeuron(neuron.copy());
-        }
+    // Kreuzt zwei Genome mit den Zufallszahlen aus random miteinander
+    // Das Kind übernimmt die schleifenfreie Struktur des fitteren Elternteils, bei Matching Genes aber zufällig Gewicht und Aktivierung des weniger fitten
+    // Die Struktur wird dabei mit dem fitteren Elternteil geteilt, kopiert werden nur Gewichte und Aktivierungen, sofern sich diese unterscheiden
+    public static Genome crossover(Genome moreFitParent, Genome lessFitParent, RandomGenerator random) {
+        Genome child = new Genome(moreFitParent);
+        int j = 0;
 
-        // Connections
-        for (ConnectionGene connection : moreFitParent.getConnectionGenes().values()) {
-            if (lessFitParent.getConnectionGenes().containsKey(connection.getInnovationNumber())) {
-                // Matching Genes
-                if (RANDOM.nextBoolean()) {
-                    child.addConnectionGene(connection.copy());
-                } else {
-                    child.addConnectionGene(lessFitParent.getConnectionGenes().get(connection.getInnovationNumber()).copy());
+        for (int i = 0; i < child.numGenes; i++) {
+            while (j < lessFitParent.numGenes && lessFitParent.innovations[j] < child.innovations[i]) {
+                j++;
+            }
+
+            // Disjoint/Excess Genes stammen immer vom fitteren Elternteil
+            if (j == lessFitParent.numGenes || lessFitParent.innovations[j] != child.innovations[i]) {
+                continue;
+            }
+
+            // Matching Genes, die dieselbe Innovation-Number, aber andere Neuronen haben, werden ebenfalls vom fitteren Elternteil übernommen
+            if (!random.nextBoolean()
+                    && lessFitParent.geneInputs[j] == child.geneInputs[i] && lessFitParent.geneOutputs[j] == child.geneOutputs[i]) {
+                if (child.weights[i] != lessFitParent.weights[j]) {
+                    child.setGeneWeight(i, lessFitParent.weights[j]);
+                }
+
+                if (child.expressed.get(i) != lessFitParent.expressed.get(j)) {
+                    child.setGeneExpressed(i, lessFitParent.expressed.get(j));
                 }
-            } else {
-                // Disjoint/Excess Genes
-                child.addConnectionGene(connection.copy());
             }
         }
 
         return child;
     }
 
+    // Verbindet alle Eingabeneuronen mit allen Ausgabeneuronen
+    public void connectInOut() {
+        for (int i = 0; i < numInputs; i++) {
+            for (int o = 0; o < numOutputs; o++) {
+                addConnection(inputIds[i], outputIds[o], 1, true, counters.getConnectionInnovation(inputIds[i], outputIds[o]));
+            }
+        }
+
+        randomizeWeights();
+    }
+
+    // Gibt jeder Verbindung des Genoms ein zufälliges Gewicht
+    public void randomizeWeights() {
+        randomizeWeights(ThreadLocalRandom.current());
+    }
+
+    // Gibt jeder Verbindung des Genoms ein zufälliges Gewicht aus random
+    public void randomizeWeights(RandomGenerator random) {
+        // Die alten Gewichte werden nicht mehr gebraucht
+        if (sharedWeights) {
+            weights = new double[weights.length];
+            sharedWeights = false;
+        }
+
+        for (int i = 0; i < numGenes; i++) {
+            weights[i] = (random.nextDouble() * 4.0D) - 2.0D;
+        }
+
+        invalidateNetwork();
+    }
+
     // Gibt zurück, ob das Genom mit genome kompatibel ist
     public boolean isCompatible(Genome genome) {
         return compatibilityDistance(genome) <= Config.COMPATIBILITY_THRESHOLD;
     }
 
     // Berechnet die Compatibility Distance mit einem anderen Genom und gibt diese zurück
+    // Excess-Gene, Disjoint-Gene und Gewichtsunterschied werden in einem einzigen Durchlauf über die sortierten Innovation-Numbers bestimmt
     public double compatibilityDistance(Genome genome) {
+        int[] innovations1 = this.innovations;
+        int[] innovations2 = genome.innovations;
+        int n1 = this.numGenes;
+        int n2 = genome.numGenes;
+
+        int i1 = 0;
+        int i2 = 0;
+        int disjointGenes = 0;
+        int matchingGenes = 0;
+        double weightDifference = 0.0D;
+
+        while (i1 < n1 && i2 < n2) {
+            if (innovations1[i1] == innovations2[i2]) {
+                weightDifference += Math.abs(this.weights[i1++] - genome.weights[i2++]);
+                matchingGenes++;
+            } else if (innovations1[i1] < innovations2[i2]) {
+                disjointGenes++;
+                i1++;
+            } else {
+                disjointGenes++;
+                i2++;
+            }
+        }
+
         // Anzahl an Excess-Genes
-        double E = countExcessGenes(genome);
+        double E = (n1 - i1) + (n2 - i2);
 
         // Anzahl an Disjoint-Genes
-        double D = countDisjointGenes(genome);
+        double D = disjointGenes;
 
         // Durchschnittlicher Gewichtsunterschied der Matching-Genes
-        double W = getAverageWeightDifference(genome);
+        double W = matchingGenes == 0 ? 0.0D : weightDifference / matchingGenes;
 
         // Anzahl der Connection-Gene im größeren Genome
-        int N = 1;
-        if (genome.getConnectionGenes().size() < connectionGenes.size()) {
-            N = connectionGenes.size();
-        } else {
-            N = genome.getConnectionGenes().size();
-        }
-
-        if(N == 0)
-            N = 1;
+        int N = Math.max(Math.max(n1, n2), 1);
 
         return ((Config.C1 * E) / N) + ((Config.C2 * D) / N) + (Config.C3 * W);
     }
 
     // Zählt die Excess-Gene mit einem anderen Genom und gibt diese zurück
     public int countExcessGenes(Genome genome) {
-        List<ConnectionGene> c1 = new ArrayList<>(this.getConnectionGenes().values());
-        List<ConnectionGene> c2 = new ArrayList<>(genome.getConnectionGenes().values());
-
-        int in1 = c1.size() == 0 ? -1 : c1.get(c1.size() - 1).getInnovationNumber();
-        int in2 = c2.size() == 0 ? -1 : c2.get(c2.size() - 1).getInnovationNumber();
-
-        int excessGenes = 0;
+        int in1 = numGenes == 0 ? -1 : innovations[numGenes - 1];
+        int in2 = genome.numGenes == 0 ? -1 : genome.innovations[genome.numGenes - 1];
 
         if (in1 < in2) {
-            for (ConnectionGene c : c2) {
-                if (c.getInnovationNumber() > in1) {
-                    excessGenes++;
-                }
-            }
+            return genome.numGenes - countGenesUpTo(genome, in1);
         } else if (in2 < in1) {
-            for (ConnectionGene c : c1) {
-                if (c.getInnovationNumber() > in2) {
-                    excessGenes++;
-                }
-            }
+            return numGenes - countGenesUpTo(this, in2);
         }
 
-        return excessGenes;
+        return 0;
     }
 
     // Zählt die Disjoint-Gene mit einem anderen Genom und gibt diese zurück
     public int countDisjointGenes(Genome genome) {
-        List<ConnectionGene> c1 = new ArrayList<>(this.getConnectionGenes().values());
-        List<ConnectionGene> c2 = new ArrayList<>(genome.getConnectionGenes().values());
-
-        int in1 = c1.size() == 0 ? -1 : c1.get(c1.size() - 1).getInnovationNumber();
-        int in2 = c2.size() == 0 ? -1 : c2.get(c2.size() - 1).getInnovationNumber();
-
+        int i1 = 0;
+        int i2 = 0;
         int disjointGenes = 0;
 
-        if (in1 < in2) {
-            for (ConnectionGene c : c1) {
-                if (c.getInnovationNumber() < in2) {
-                    disjointGenes++;
-                }
-            }
-        } else if (in2 < in1) {
-            for (ConnectionGene c : c2) {
-                if (c.getInnovationNumber() < in1) {
-                    disjointGenes++;
-                }
+        while (i1 < numGenes && i2 < genome.numGenes) {
+            if (innovations[i1] == genome.innovations[i2]) {
+                i1++;
+                i2++;
+            } else if (innovations[i1] < genome.innovations[i2]) {
+                disjointGenes++;
+                i1++;
+            } else {
+                disjointGenes++;
+                i2++;
             }
         }
 
@@ -314,13 +479,19 @@ public class Genome {
 
     // Berechnet den durchschnittlichen Gewichtsunterschied der Matching-Gene mit einem anderen Genom und gibt diesen zurück
     public double getAverageWeightDifference(Genome genome) {
+        int i1 = 0;
+        int i2 = 0;
         double weightDifference = 0.0D;
         int matchingGenes = 0;
 
-        for (ConnectionGene connectionGene : this.getConnectionGenes().values()) {
-            if (genome.getConnectionGenes().containsKey(connectionGene.getInnovationNumber())) {
-                weightDifference += Math.abs(connectionGene.getWeight() - genome.getConnectionGenes().get(connectionGene.getInnovationNumber()).getWeight());
+        while (i1 < numGenes && i2 < genome.numGenes) {
+            if (innovations[i1] == genome.innovations[i2]) {
+                weightDifference += Math.abs(weights[i1++] - genome.weights[i2++]);
                 matchingGenes++;
+            } else if (innovations[i1] < genome.innovations[i2]) {
+                i1++;
+            } else {
+                i2++;
             }
         }
 
@@ -331,23 +502,12 @@ public class Genome {
         }
     }
 
-    // Verbindet alle Eingabeneuronen mit allen Ausgabeneuronen
-    public void connectInOut() {
-        for (Neuron inputNeuron : inputNeurons) {
-            for (Neuron outputNeuron : outputNeurons) {
-                addConnectionGene(new ConnectionGene(inputNeuron, outputNeuron, 1, true, Counters.getNextConnectionInnovation()));
-            }
-        }
-
-        randomizeWeights();
+    // Zählt die Gene des Genoms, deren Innovation-Number höchstens innovationNumber ist
+    private static int countGenesUpTo(Genome genome, int innovationNumber) {
+        int index = Arrays.binarySearch(genome.innovations, 0, genome.numGenes, innovationNumber);
+        return index >= 0 ? index + 1 : -(index + 1);
     }
 
-    // Gibt jeder Verbindung des Genoms ein zufälliges Gewicht
-    public void randomizeWeights() {
-        for (ConnectionGene connection : connectionGenes.values()) {
-            connection.setWeight((Math.random() * 4.0D) - 2.0D);
-        }
-    }
 
     // Erzeugt eine grafische Ausgabe des Genoms
     public void print(String path) {
@@ -361,6 +521,8 @@ public class Genome {
             g.setColor(Color.WHITE);
             g.fillRect(0, 0, image.getWidth(), image.getHeight());
 
+            // Die Sichten werden einmal erstellt, damit die Zeichenpositionen erhalten bleiben
+            Map<Integer, Neuron> neurons = new HashMap<>(getNeurons());
             List<Neuron> inputNeurons = new ArrayList<>();
             List<Neuron> hiddenNeurons = new ArrayList<>();
             List<Neuron> outputNeurons = new ArrayList<>();
@@ -403,7 +565,7 @@ public class Genome {
             polygon.addPoint(-5, -7);
             polygon.addPoint(5, -7);
 
-            for (ConnectionGene c : connectionGenes.values()) {
+            for (ConnectionGene c : getConnectionGenes().values()) {
                 g.setColor(c.isExpressed() ? (c.getWeight() >= 0.0D ? Color.GREEN : Color.RED) : Color.GRAY);
 
                 float x1 = neurons.get(c.getInputNeuron()).getRenderX();
@@ -467,56 +629,762 @@ public class Genome {
         }
     }
 
+    // Berechnet einen Hash über Neuronen, Verbindungen, Gewichte und Aktivierungen, also über alles, was die Netzausgabe bestimmt
+    // Die topologische Reihenfolge geht nur mit Config.RECURRENT_CONNECTIONS ein, da sie dort festlegt, welche Verbindungen rekurrent sind.
+    // Die Fitness geht nicht ein
+    public long contentHash() {
+        long hash = numNeurons;
+
+        for (int i = 0; i < numNeurons; i++) {
+            hash = mixHash(hash, neuronIds[i]);
+            hash = mixHash(hash, neuronTypes[i].ordinal());
+        }
+
+        for (int i = 0; i < numInputs; i++) {
+            hash = mixHash(hash, inputIds[i]);
+        }
+
+        for (int o = 0; o < numOutputs; o++) {
+            hash = mixHash(hash, outputIds[o]);
+        }
+
+        for (int i = 0; i < numGenes; i++) {
+            hash = mixHash(hash, innovations[i]);
+            hash = mixHash(hash, ConnectionGene.key(geneInputs[i], geneOutputs[i]));
+            hash = mixHash(hash, Double.doubleToLongBits(weights[i]));
+            hash = mixHash(hash, expressed.get(i) ? 1 : 0);
+        }
+
+        if (Config.RECURRENT_CONNECTIONS) {
+            for (int i = 0; i < numGenes; i++) {
+                hash = mixHash(hash, isRecurrentGene(i) ? 1 : 0);
+            }
+        }
+
+        return hash;
+    }
+
+    private static long mixHash(long hash, long value) {
+        long h = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    // Gibt zurück, ob genome dieselben Neuronen, Verbindungen, Gewichte und Aktivierungen hat und daher dieselbe Netzausgabe liefert
+    public boolean hasSameContent(Genome genome) {
+        if (this == genome) {
+            return true;
+        }
+
+        if (numNeurons != genome.numNeurons || numInputs != genome.numInputs || numOutputs != genome.numOutputs || numGenes != genome.numGenes) {
+            return false;
+        }
+
+        // Mit Copy-on-Write geteilte Arrays müssen nicht verglichen werden
+        if (neuronIds != genome.neuronIds && !(Arrays.equals(neuronIds, 0, numNeurons, genome.neuronIds, 0, numNeurons)
+                && Arrays.equals(neuronTypes, 0, numNeurons, genome.neuronTypes, 0, numNeurons)
+                && Arrays.equals(inputIds, 0, numInputs, genome.inputIds, 0, numInputs)
+                && Arrays.equals(outputIds, 0, numOutputs, genome.outputIds, 0, numOutputs))) {
+            return false;
+        }
+
+        if (innovations != genome.innovations && !(Arrays.equals(innovations, 0, numGenes, genome.innovations, 0, numGenes)
+                && Arrays.equals(geneInputs, 0, numGenes, genome.geneInputs, 0, numGenes)
+                && Arrays.equals(geneOutputs, 0, numGenes, genome.geneOutputs, 0, numGenes))) {
+            return false;
+        }
+
+        if (weights != genome.weights && !Arrays.equals(weights, 0, numGenes, genome.weights, 0, numGenes)) {
+            return false;
+        }
+
+        // Mit denselben Genen können unterschiedliche Reihenfolgen andere Verbindungen rekurrent machen
+        if (Config.RECURRENT_CONNECTIONS && neuronPositions != genome.neuronPositions) {
+            for (int i = 0; i < numGenes; i++) {
+                if (isRecurrentGene(i) != genome.isRecurrentGene(i)) {
+                    return false;
+                }
+            }
+        }
+
+        return expressed == genome.expressed || expressed.equals(genome.expressed);
+    }
+
+    // Gibt die Anzahl der Bytes zurück, die writeTo() schreibt
+    int getSerializedSize() {
+        return 5 * Integer.BYTES + Double.BYTES
+                + numNeurons * (2 * Integer.BYTES + 1)
+                + (numInputs + numOutputs) * Integer.BYTES
+                + numGenes * (3 * Integer.BYTES + Double.BYTES)
+                + ((numGenes + 63) / 64) * Long.BYTES;
+    }
+
+    // Schreibt das Genom ab der aktuellen Position in buffer, die Arrays werden dabei am Stück kopiert
+    void writeTo(ByteBuffer buffer) {
+        buffer.putInt(numNeurons);
+        buffer.putInt(numInputs);
+        buffer.putInt(numOutputs);
+        buffer.putInt(numGenes);
+        buffer.putInt(nextPosition);
+        buffer.putDouble(fitness);
+
+        putInts(buffer, neuronIds, numNeurons);
+        putInts(buffer, neuronPositions, numNeurons);
+
+        for (int i = 0; i < numNeurons; i++) {
+            buffer.put((byte) neuronTypes[i].ordinal());
+        }
+
+        putInts(buffer, inputIds, numInputs);
+        putInts(buffer, outputIds, numOutputs);
+
+        putInts(buffer, innovations, numGenes);
+        putInts(buffer, geneInputs, numGenes);
+        putInts(buffer, geneOutputs, numGenes);
+        buffer.asDoubleBuffer().put(weights, 0, numGenes);
+        buffer.position(buffer.position() + numGenes * Double.BYTES);
+
+        long[] words = expressed.toLongArray();
+        int numWords = (numGenes + 63) / 64;
+
+        for (int w = 0; w < numWords; w++) {
+            buffer.putLong(w < words.length ? words[w] : 0L);
+        }
+    }
+
+    // Liest ein mit writeTo() geschriebenes Genom ab der aktuellen Position aus buffer
+    // Die Zähler werden auf die Standard-Zähler gesetzt, in denen die IDs und Innovation-Numbers des Genoms reserviert werden,
+    // und müssen bei Bedarf mit setCounters() ersetzt werden
+    static Genome readFrom(ByteBuffer buffer) {
+        Genome genome = new Genome();
+
+        int numNeurons = buffer.getInt();
+        int numInputs = buffer.getInt();
+        int numOutputs = buffer.getInt();
+        int numGenes = buffer.getInt();
+
+        if (numNeurons < 0 || numInputs < 0 || numOutputs < 0 || numGenes < 0 || (long) numInputs + numOutputs > numNeurons) {
+            throw new IllegalArgumentException("Ungültige Anzahl an Neuronen oder Verbindungen!");
+        }
+
+        // Vor dem Anlegen der Arrays prüfen, ob der Puffer überhaupt so viele Daten enthält, damit beschädigte Anzahlen keinen riesigen Speicher belegen
+        // je Neuron ID, Position und Typ, je Ein- und Ausgabe eine ID, je Gen Innovation-Number, zwei Neuronen und Gewicht sowie ein Bit für die Aktivierung
+        long size = Integer.BYTES + Double.BYTES
+                + numNeurons * (2L * Integer.BYTES + 1)
+                + ((long) numInputs + numOutputs) * Integer.BYTES
+                + numGenes * (3L * Integer.BYTES + Double.BYTES)
+                + (numGenes + 63L) / 64 * Long.BYTES;
+
+        if (size > buffer.remaining()) {
+            throw new IllegalArgumentException("Die Anzahl an Neuronen oder Verbindungen passt nicht zur Größe der Daten!");
+        }
+
+        genome.nextPosition = buffer.getInt();
+        genome.fitness = buffer.getDouble();
+
+        genome.neuronIds = getInts(buffer, numNeurons);
+        genome.neuronPositions = getInts(buffer, numNeurons);
+        genome.neuronTypes = new Neuron.NeuronType[genome.neuronIds.length];
+
+        Neuron.NeuronType[] types = Neuron.NeuronType.values();
+
+        for (int i = 0; i < numNeurons; i++) {
+            int type = buffer.get();
+
+            if (type < 0 || type >= types.length) {
+                throw new IllegalArgumentException("Unbekannter Neuronen-Typ " + type + "!");
+            }
+
+            genome.neuronTypes[i] = types[type];
+        }
+
+        genome.numNeurons = numNeurons;
+        genome.inputIds = getInts(buffer, numInputs);
+        genome.numInputs = numInputs;
+        genome.outputIds = getInts(buffer, numOutputs);
+        genome.numOutputs = numOutputs;
+
+        genome.innovations = getInts(buffer, numGenes);
+        genome.geneInputs = getInts(buffer, numGenes);
+        genome.geneOutputs = getInts(buffer, numGenes);
+        genome.weights = new double[genome.innovations.length];
+        buffer.asDoubleBuffer().get(genome.weights, 0, numGenes);
+        buffer.position(buffer.position() + numGenes * Double.BYTES);
+
+        long[] words = new long[(numGenes + 63) / 64];
+
+        for (int w = 0; w < words.length; w++) {
+            words[w] = buffer.getLong();
+        }
+
+        genome.expressed = BitSet.valueOf(words);
+        genome.numGenes = numGenes;
+
+        // Neuronen und Gene müssen aufsteigend sortiert sein, damit die binäre Suche funktioniert
+        for (int i = 1; i < numNeurons; i++) {
+            if (genome.neuronIds[i - 1] >= genome.neuronIds[i]) {
+                throw new IllegalArgumentException("Die Neuronen sind nicht nach ID sortiert!");
+            }
+        }
+
+        // Ein- und Ausgaben müssen genau die Neuronen des jeweiligen Typs sein, sonst ordnet Network die Neuronen falsch zu
+        checkNeuronIds(genome, genome.inputIds, numInputs, Neuron.NeuronType.INPUT);
+        checkNeuronIds(genome, genome.outputIds, numOutputs, Neuron.NeuronType.OUTPUT);
+
+        // Die Positionen legen die topologische Reihenfolge fest und müssen daher eindeutig und kleiner als die nächste Position sein
+        int[] positions = Arrays.copyOf(genome.neuronPositions, numNeurons);
+        Arrays.sort(positions);
+
+        for (int i = 0; i < numNeurons; i++) {
+            if (positions[i] < 0 || positions[i] >= genome.nextPosition || (i > 0 && positions[i - 1] == positions[i])) {
+                throw new IllegalArgumentException("Die Positionen der Neuronen sind ungültig!");
+            }
+        }
+
+        genome.connectionKeys = new LongHashSet(numGenes);
+
+        for (int i = 0; i < numGenes; i++) {
+            if (i > 0 && genome.innovations[i - 1] >= genome.innovations[i]) {
+                throw new IllegalArgumentException("Die Verbindungen sind nicht nach Innovation-Number sortiert!");
+            }
+
+            if (genome.indexOfNeuron(genome.geneInputs[i]) < 0 || genome.indexOfNeuron(genome.geneOutputs[i]) < 0) {
+                throw new IllegalArgumentException("Die Verbindung " + genome.innovations[i] + " verweist auf ein unbekanntes Neuron!");
+            }
+
+            genome.connectionKeys.add(ConnectionGene.key(genome.geneInputs[i], genome.geneOutputs[i]));
+        }
+
+        // Die IDs und Innovation-Numbers des Genoms dürfen bei späteren Mutationen nicht erneut vergeben werden
+        genome.counters.reserveNeuronId(genome.getMaxNeuronId());
+        genome.counters.reserveConnectionInnovation(genome.getMaxInnovationNumber());
+
+        return genome;
+    }
+
+    // Prüft, ob ids aus count verschiedenen IDs besteht, die genau die Neuronen des übergebenen Typs im Genom bezeichnen
+    private static void checkNeuronIds(Genome genome, int[] ids, int count, Neuron.NeuronType type) {
+        int numNeurons = 0;
+
+        for (int i = 0; i < genome.numNeurons; i++) {
+            if (genome.neuronTypes[i] == type) {
+                numNeurons++;
+            }
+        }
+
+        BitSet seen = new BitSet(genome.numNeurons);
+
+        for (int i = 0; i < count; i++) {
+            int index = genome.indexOfNeuron(ids[i]);
+
+            if (index < 0 || genome.neuronTypes[index] != type || seen.get(index)) {
+                throw new IllegalArgumentException("Das Neuron " + ids[i] + " ist kein gültiges Neuron vom Typ " + type + "!");
+            }
+
+            seen.set(index);
+        }
+
+        if (numNeurons != count) {
+            throw new IllegalArgumentException("Die Anzahl der Neuronen vom Typ " + type + " passt nicht zur Anzahl der Ein- oder Ausgaben!");
+        }
+    }
+
+    // Schreibt die ersten length Werte von values am Stück in buffer
+    private static void putInts(ByteBuffer buffer, int[] values, int length) {
+        buffer.asIntBuffer().put(values, 0, length);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+    }
+
+    // Liest length Werte am Stück aus buffer in ein neues Array, das Platz für weitere Werte lässt
+    private static int[] getInts(ByteBuffer buffer, int length) {
+        int[] values = new int[Math.max(length, 4)];
+        buffer.asIntBuffer().get(values, 0, length);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+        return values;
+    }
+
+    // Gibt eine Sicht auf alle Neuronen zurück <Neuron-ID, Neuron>
     public Map<Integer, Neuron> getNeurons() {
-        return neurons;
+        return neuronView;
     }
 
+    // Fügt ein Neuron am Ende der topologischen Reihenfolge hinzu
+    // Die ID wird in den Zählern reserviert, damit spätere Neuronmutationen sie nicht erneut vergeben
     public void addNeuron(Neuron neuron) {
-        neurons.put(neuron.getId(), neuron);
+        insertNeuron(neuron.getId(), neuron.getType());
+        counters.reserveNeuronId(neuron.getId());
+    }
+
+    // Sortiert ein Neuron nach seiner ID in die Arrays ein und hängt es an die topologische Reihenfolge an
+    private void insertNeuron(int id, Neuron.NeuronType type) {
+        int index = Arrays.binarySearch(neuronIds, 0, numNeurons, id);
+
+        if (index >= 0) {
+            throw new IllegalArgumentException("Das Genom enthält bereits ein Neuron mit der ID " + id + "!");
+        }
+
+        index = -(index + 1);
+        writeNeurons();
+
+        if (numNeurons == neuronIds.length) {
+            neuronIds = Arrays.copyOf(neuronIds, numNeurons * 2);
+            neuronTypes = Arrays.copyOf(neuronTypes, numNeurons * 2);
+            neuronPositions = Arrays.copyOf(neuronPositions, numNeurons * 2);
+        }
+
+        System.arraycopy(neuronIds, index, neuronIds, index + 1, numNeurons - index);
+        System.arraycopy(neuronTypes, index, neuronTypes, index + 1, numNeurons - index);
+        System.arraycopy(neuronPositions, index, neuronPositions, index + 1, numNeurons - index);
+
+        neuronIds[index] = id;
+        neuronTypes[index] = type;
+        neuronPositions[index] = nextPosition++;
+        numNeurons++;
+
+        if (type == Neuron.NeuronType.INPUT) {
+            if (numInputs == inputIds.length) {
+                inputIds = Arrays.copyOf(inputIds, numInputs * 2);
+            }
+
+            inputIds[numInputs++] = id;
+        } else if (type == Neuron.NeuronType.OUTPUT) {
+            if (numOutputs == outputIds.length) {
+                outputIds = Arrays.copyOf(outputIds, numOutputs * 2);
+            }
+
+            outputIds[numOutputs++] = id;
+        }
 
-        if (neuron.getType() == Neuron.NeuronType.INPUT) {
-            inputNeurons.add(neuron);
-        } else if (neuron.getType() == Neuron.NeuronType.OUTPUT) {
-            outputNeurons.add(neuron);
+        invalidateAdjacency();
+        invalidateNetwork();
+    }
+
+    // Gibt alle Eingabeneuronen in der Reihenfolge ihres Hinzufügens zurück
+    public List<Neuron> getInputNeurons() {
+        List<Neuron> list = new ArrayList<>(numInputs);
+
+        for (int i = 0; i < numInputs; i++) {
+            list.add(new Neuron(inputIds[i], Neuron.NeuronType.INPUT, this));
         }
+
+        return list;
     }
 
+    // Gibt alle Ausgabeneuronen in der Reihenfolge ihres Hinzufügens zurück
+    public List<Neuron> getOutputNeurons() {
+        List<Neuron> list = new ArrayList<>(numOutputs);
+
+        for (int o = 0; o < numOutputs; o++) {
+            list.add(new Neuron(outputIds[o], Neuron.NeuronType.OUTPUT, this));
+        }
+
+        return list;
+    }
+
+    // Gibt eine Sicht auf alle Connection-Gene zurück <Connection-Innovation, ConnectionGene>
     public Map<Integer, ConnectionGene> getConnectionGenes() {
-        return connectionGenes;
+        return connectionGeneView;
     }
 
+    // Fügt eine Verbindung hinzu, sofern diese keine Schleife erzeugt oder Config.RECURRENT_CONNECTIONS gesetzt ist
+    // Das übergebene Objekt wird danach zu einer Sicht auf das Gen in diesem Genom
     public void addConnectionGene(ConnectionGene connection) {
-        boolean inOut = connection.getInputNeuron() == connection.getOutputNeuron();
+        if (addConnection(connection.getInputNeuron(), connection.getOutputNeuron(), connection.getWeight(), connection.isExpressed(), connection.getInnovationNumber())) {
+            connection.setGenome(this);
+        }
+    }
+
+    // Fügt eine Verbindung hinzu, sofern diese keine Schleife erzeugt, und gibt zurück, ob dies gelungen ist
+    // Mit Config.RECURRENT_CONNECTIONS werden Verbindungen, die eine Schleife schließen würden, als rekurrente Verbindungen hinzugefügt
+    private boolean addConnection(int inputNeuron, int outputNeuron, double weight, boolean expressed, int innovationNumber) {
+        int from = indexOfNeuron(inputNeuron);
+        int to = indexOfNeuron(outputNeuron);
 
-        Neuron inputNeuron = neurons.get(connection.getInputNeuron());
-        Neuron outputNeuron = neurons.get(connection.getOutputNeuron());
-        boolean loop = checkLoop(outputNeuron, inputNeuron);
+        if (from < 0 || to < 0) {
+            throw new IllegalArgumentException("Das Genom enthält kein Neuron mit der ID " + (from < 0 ? inputNeuron : outputNeuron) + "!");
+        }
 
-        if (!inOut && !loop) {
-            connectionGenes.put(connection.getInnovationNumber(), connection);
-            neurons.get(connection.getInputNeuron()).addOutputConnection(connection);
-            neurons.get(connection.getOutputNeuron()).addInputConnection(connection);
+        if ((from == to || !updateOrder(from, to)) && !Config.RECURRENT_CONNECTIONS) {
+            return false;
         }
+
+        return putConnection(inputNeuron, outputNeuron, weight, expressed, innovationNumber);
     }
 
-    // Überprüft, ob ein Neuron Eingaben erwartet, die von seinen eigenen Ausgaben abhängig sind, da da die Netzwerkausgabe so nicht berechnet werden kann
-    private boolean checkLoop(Neuron startNeuron, Neuron currentNeuron) {
-        for (ConnectionGene connection : currentNeuron.getInputConnections()) {
-            if (connection.getInputNeuron() == startNeuron.getId()) {
-                return true;
+    // Fügt ein Gen ohne Überprüfung auf Schleifen an der passenden Stelle ein, meist am Ende, da neue Innovation-Numbers aufsteigend vergeben werden
+    // Gibt es die Innovation-Number schon für dieselben Neuronen, werden nur Gewicht und Aktivierung übernommen
+    private boolean putConnection(int inputNeuron, int outputNeuron, double weight, boolean expressed, int innovationNumber) {
+        int index = Arrays.binarySearch(innovations, 0, numGenes, innovationNumber);
+
+        if (index >= 0) {
+            if (geneInputs[index] != inputNeuron || geneOutputs[index] != outputNeuron) {
+                return false;
             }
 
-            Neuron inputNeuron = neurons.get(connection.getInputNeuron());
+            writeWeights();
+            writeExpressed();
+            weights[index] = weight;
+            this.expressed.set(index, expressed);
+            invalidateNetwork();
+
+            return true;
+        }
+
+        index = -(index + 1);
+        writeGenes();
+        writeWeights();
+        writeExpressed();
+
+        if (numGenes == innovations.length) {
+            innovations = Arrays.copyOf(innovations, numGenes * 2);
+            geneInputs = Arrays.copyOf(geneInputs, numGenes * 2);
+            geneOutputs = Arrays.copyOf(geneOutputs, numGenes * 2);
+            weights = Arrays.copyOf(weights, numGenes * 2);
+        }
 
-            if (inputNeuron.getType() == Neuron.NeuronType.INPUT)
+        System.arraycopy(innovations, index, innovations, index + 1, numGenes - index);
+        System.arraycopy(geneInputs, index, geneInputs, index + 1, numGenes - index);
+        System.arraycopy(geneOutputs, index, geneOutputs, index + 1, numGenes - index);
+        System.arraycopy(weights, index, weights, index + 1, numGenes - index);
+
+        for (int i = numGenes; i > index; i--) {
+            this.expressed.set(i, this.expressed.get(i - 1));
+        }
+
+        innovations[index] = innovationNumber;
+        geneInputs[index] = inputNeuron;
+        geneOutputs[index] = outputNeuron;
+        weights[index] = weight;
+        this.expressed.set(index, expressed);
+        numGenes++;
+
+        connectionKeys.add(ConnectionGene.key(inputNeuron, outputNeuron));
+        invalidateAdjacency();
+        invalidateNetwork();
+
+        return true;
+    }
+
+    // Gibt zurück, ob eine Verbindung von inputNeuron zu outputNeuron existiert
+    public boolean hasConnection(int inputNeuron, int outputNeuron) {
+        return connectionKeys.contains(ConnectionGene.key(inputNeuron, outputNeuron));
+    }
+
+    // Überprüft, ob eine Verbindung vom Neuron mit Index from zu dem mit Index to eine Schleife erzeugen würde, da die Netzwerkausgabe so nicht berechnet werden kann
+    // Die Neuronen werden dazu in einer topologischen Reihenfolge gehalten, die nach Pearce und Kelly nur im betroffenen Bereich angepasst wird
+    // Gibt false zurück, falls eine Schleife entstehen würde
+    private boolean updateOrder(int from, int to) {
+        int lower = neuronPositions[to];
+        int upper = neuronPositions[from];
+
+        // Die Reihenfolge passt bereits
+        if (upper < lower) {
+            return true;
+        }
+
+        buildAdjacency();
+
+        OrderScratch scratch = ORDER_SCRATCH.get().prepare(numNeurons);
+        int[] stack = scratch.stack;
+        long[] neurons = scratch.neurons;
+        BitSet visited = scratch.visited;
+        int size = 0;
+        int count = 0;
+
+        // Alle Neuronen, die von to aus erreichbar sind und vor from liegen
+        stack[size++] = to;
+        visited.set(to);
+
+        while (size > 0) {
+            int neuron = stack[--size];
+            neurons[count++] = ((long) neuronPositions[neuron] << 32) | neuron;
+
+            for (int s = successorStart[neuron]; s < successorStart[neuron + 1]; s++) {
+                int next = successors[s];
+
+                if (next == from) {
+                    return false;
+                }
+
+                if (neuronPositions[next] < upper && !visited.get(next)) {
+                    visited.set(next);
+                    stack[size++] = next;
+                }
+            }
+        }
+
+        int numForward = count;
+
+        // Alle Neuronen, von denen from erreichbar ist und die nach to liegen
+        stack[size++] = from;
+        visited.set(from);
+
+        while (size > 0) {
+            int neuron = stack[--size];
+            neurons[count++] = ((long) neuronPositions[neuron] << 32) | neuron;
+
+            for (int p = predecessorStart[neuron]; p < predecessorStart[neuron + 1]; p++) {
+                int previous = predecessors[p];
+
+                if (neuronPositions[previous] > lower && !visited.get(previous)) {
+                    visited.set(previous);
+                    stack[size++] = previous;
+                }
+            }
+        }
+
+        // Die frei gewordenen Positionen zuerst an backward und dann an forward vergeben, jeweils unter Beibehaltung der bisherigen Reihenfolge
+        Arrays.sort(neurons, 0, numForward);
+        Arrays.sort(neurons, numForward, count);
+
+        // Der Stapel wird nicht mehr gebraucht und nimmt die frei gewordenen Positionen auf
+        for (int i = 0; i < count; i++) {
+            stack[i] = (int) (neurons[i] >>> 32);
+        }
+
+        Arrays.sort(stack, 0, count);
+        writeNeurons();
+        int p = 0;
+
+        for (int i = numForward; i < count; i++) {
+            neuronPositions[(int) neurons[i]] = stack[p++];
+        }
+
+        for (int i = 0; i < numForward; i++) {
+            neuronPositions[(int) neurons[i]] = stack[p++];
+        }
+
+        invalidateNetwork();
+
+        return true;
+    }
+
+    // Erstellt die Nachfolger- und Vorgängerlisten aller Neuronen, sofern diese seit der letzten Änderung noch nicht erstellt wurden
+    private void buildAdjacency() {
+        if (successorStart != null) {
+            return;
+        }
+
+        int[] from = new int[numGenes];
+        int[] to = new int[numGenes];
+
+        successorStart = new int[numNeurons + 1];
+        predecessorStart = new int[numNeurons + 1];
+
+        for (int i = 0; i < numGenes; i++) {
+            from[i] = indexOfNeuron(geneInputs[i]);
+            to[i] = indexOfNeuron(geneOutputs[i]);
+
+            // Rekurrente Verbindungen gehören nicht zur topologischen Reihenfolge
+            if (isRecurrent(from[i], to[i])) {
+                from[i] = -1;
                 continue;
+            }
+
+            successorStart[from[i] + 1]++;
+            predecessorStart[to[i] + 1]++;
+        }
+
+        for (int n = 0; n < numNeurons; n++) {
+            successorStart[n + 1] += successorStart[n];
+            predecessorStart[n + 1] += predecessorStart[n];
+        }
+
+        successors = new int[numGenes];
+        predecessors = new int[numGenes];
+
+        int[] nextSuccessor = Arrays.copyOf(successorStart, numNeurons);
+        int[] nextPredecessor = Arrays.copyOf(predecessorStart, numNeurons);
+
+        for (int i = 0; i < numGenes; i++) {
+            if (from[i] >= 0) {
+                successors[nextSuccessor[from[i]]++] = to[i];
+                predecessors[nextPredecessor[to[i]]++] = from[i];
+            }
+        }
+    }
+
+    // Gibt zurück, ob die Verbindung vom Neuron mit Index from zu dem mit Index to rekurrent ist, also entgegen der topologischen Reihenfolge verläuft
+    // Da die Reihenfolge nur im Rahmen der übrigen Verbindungen angepasst wird, bleibt eine rekurrente Verbindung dauerhaft rekurrent
+    private boolean isRecurrent(int from, int to) {
+        return neuronPositions[from] >= neuronPositions[to];
+    }
+
+    // Gibt zurück, ob Network das Gen an Position gene als rekurrente Verbindung auswertet
+    // Eingabeneuronen stehen dort immer vor allen anderen Neuronen, unabhängig von ihrer Position
+    private boolean isRecurrentGene(int gene) {
+        int from = indexOfNeuron(geneInputs[gene]);
+        int to = indexOfNeuron(geneOutputs[gene]);
+
+        return neuronTypes[from] != Neuron.NeuronType.INPUT && neuronTypes[to] != Neuron.NeuronType.INPUT && isRecurrent(from, to);
+    }
+
+    private void invalidateAdjacency() {
+        successorStart = null;
+        successors = null;
+        predecessorStart = null;
+        predecessors = null;
+    }
+
+    // Kopiert die Neuronen-Arrays, falls diese noch mit einem anderen Genom geteilt werden
+    private void writeNeurons() {
+        if (sharedNeurons) {
+            neuronIds = neuronIds.clone();
+            neuronTypes = neuronTypes.clone();
+            neuronPositions = neuronPositions.clone();
+            inputIds = inputIds.clone();
+            outputIds = outputIds.clone();
+            sharedNeurons = false;
+        }
+    }
+
+    // Kopiert die Struktur der Connection-Gene, falls diese noch mit einem anderen Genom geteilt wird
+    private void writeGenes() {
+        if (sharedGenes) {
+            innovations = innovations.clone();
+            geneInputs = geneInputs.clone();
+            geneOutputs = geneOutputs.clone();
+            connectionKeys = new LongHashSet(connectionKeys);
+            sharedGenes = false;
+        }
+    }
+
+    // Kopiert die Gewichte, falls diese noch mit einem anderen Genom geteilt werden
+    private void writeWeights() {
+        if (sharedWeights) {
+            weights = weights.clone();
+            sharedWeights = false;
+        }
+    }
+
+    // Kopiert die Aktivierungen, falls diese noch mit einem anderen Genom geteilt werden
+    private void writeExpressed() {
+        if (sharedExpressed) {
+            expressed = (BitSet) expressed.clone();
+            sharedExpressed = false;
+        }
+    }
+
+    // Gibt den Index des Neurons mit der übergebenen ID zurück, oder einen negativen Wert
+    int indexOfNeuron(int id) {
+        return Arrays.binarySearch(neuronIds, 0, numNeurons, id);
+    }
+
+    // Gibt den Index des Gens mit der übergebenen Innovation-Number zurück, oder einen negativen Wert
+    int indexOfGene(int innovationNumber) {
+        return Arrays.binarySearch(innovations, 0, numGenes, innovationNumber);
+    }
+
+    int getNumNeurons() {
+        return numNeurons;
+    }
+
+    int getNeuronId(int index) {
+        return neuronIds[index];
+    }
+
+    Neuron.NeuronType getNeuronType(int index) {
+        return neuronTypes[index];
+    }
+
+    int getNeuronPosition(int index) {
+        return neuronPositions[index];
+    }
+
+    int getNumInputs() {
+        return numInputs;
+    }
+
+    int getInputId(int i) {
+        return inputIds[i];
+    }
+
+    int getNumOutputs() {
+        return numOutputs;
+    }
 
-            if (checkLoop(startNeuron, inputNeuron)) {
-                return true;
+    int getOutputId(int o) {
+        return outputIds[o];
+    }
+
+    int getNumGenes() {
+        return numGenes;
+    }
+
+    int getInnovation(int index) {
+        return innovations[index];
+    }
+
+    int getGeneInput(int index) {
+        return geneInputs[index];
+    }
+
+    int getGeneOutput(int index) {
+        return geneOutputs[index];
+    }
+
+    double getGeneWeight(int index) {
+        return weights[index];
+    }
+
+    void setGeneWeight(int index, double weight) {
+        writeWeights();
+        weights[index] = weight;
+        invalidateNetwork();
+    }
+
+    boolean isGeneExpressed(int index) {
+        return expressed.get(index);
+    }
+
+    void setGeneExpressed(int index, boolean expressed) {
+        writeExpressed();
+        this.expressed.set(index, expressed);
+        invalidateNetwork();
+    }
+
+    // Gibt alle Verbindungen zurück, die in das Neuron hinein- (incoming) bzw. aus diesem herausführen
+    List<ConnectionGene> getConnections(int neuronId, boolean incoming) {
+        List<ConnectionGene> list = new ArrayList<>();
+
+        for (int i = 0; i < numGenes; i++) {
+            if ((incoming ? geneOutputs[i] : geneInputs[i]) == neuronId) {
+                list.add(geneAt(i));
             }
         }
 
-        return false;
+        return list;
+    }
+
+    // Erstellt eine Sicht auf das Neuron mit dem übergebenen Index
+    private Neuron neuronAt(int index) {
+        return new Neuron(neuronIds[index], neuronTypes[index], this);
+    }
+
+    // Erstellt eine Sicht auf das Gen mit dem übergebenen Index
+    private ConnectionGene geneAt(int index) {
+        ConnectionGene connection = new ConnectionGene(geneInputs[index], geneOutputs[index], weights[index], expressed.get(index), innovations[index]);
+        connection.setGenome(this);
+        return connection;
+    }
+
+    // Gibt die Zähler zurück, aus denen Innovation-Numbers und Neuronen-IDs vergeben werden
+    public Counters getCounters() {
+        return counters;
+    }
+
+    // Setzt die Zähler, aus denen Innovation-Numbers und Neuronen-IDs vergeben werden
+    public void setCounters(Counters counters) {
+        this.counters = counters;
+    }
+
+    // Gibt die größte Neuronen-ID des Genoms zurück, oder -1
+    public int getMaxNeuronId() {
+        return numNeurons == 0 ? -1 : neuronIds[numNeurons - 1];
+    }
+
+    // Gibt die größte Innovation-Number des Genoms zurück, oder -1
+    public int getMaxInnovationNumber() {
+        return numGenes == 0 ? -1 : innovations[numGenes - 1];
     }
 
     // Gibt die Fitness des Genoms zurück
@@ -529,8 +1397,141 @@ public class Genome {
         this.fitness = fitness;
     }
 
+    // Gibt die Spezies zurück, der das Genom zugeordnet ist
+    public Species getSpecies() {
+        return species;
+    }
+
+    // Ordnet das Genom einer Spezies zu
+    public void setSpecies(Species species) {
+        this.species = species;
+    }
+
     @Override
     public String toString() {
-        return String.format("Genome{numNeurons=%s, numConnections=%s, fitness=%s}", neurons.size(), connectionGenes.size(), fitness);
+        return String.format("Genome{numNeurons=%s, numConnections=%s, fitness=%s}", numNeurons, numGenes, fitness);
+    }
+
+    // Zwischenspeicher für die Anpassung der topologischen Reihenfolge, damit updateOrder() keine Objekte anlegen muss
+    // Jedes Neuron wird höchstens einmal besucht, daher reichen Arrays mit je einem Eintrag pro Neuron
+    private static class OrderScratch {
+        private int[] stack = new int[0];
+        // Position (obere 32 Bit) und Index (untere 32 Bit) der verschobenen Neuronen, sodass Arrays.sort() sie nach Position sortiert
+        private long[] neurons = new long[0];
+        private final BitSet visited = new BitSet();
+
+        // Vergrößert die Arrays bei Bedarf und setzt die besuchten Neuronen zurück
+        private OrderScratch prepare(int numNeurons) {
+            if (stack.length < numNeurons) {
+                stack = new int[numNeurons];
+                neurons = new long[numNeurons];
+            }
+
+            visited.clear();
+            return this;
+        }
+    }
+
+    // Unveränderliche Sicht auf die Neuronen, aufsteigend nach ID sortiert
+    private class NeuronMap extends AbstractMap<Integer, Neuron> {
+        @Override
+        public int size() {
+            return numNeurons;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Integer && indexOfNeuron((Integer) key) >= 0;
+        }
+
+        @Override
+        public Neuron get(Object key) {
+            int index = key instanceof Integer ? indexOfNeuron((Integer) key) : -1;
+            return index >= 0 ? neuronAt(index) : null;
+        }
+
+        @Override
+        public Set<Entry<Integer, Neuron>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return numNeurons;
+                }
+
+                @Override
+                public Iterator<Entry<Integer, Neuron>> iterator() {
+                    return new Iterator<>() {
+                        private int index = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < numNeurons;
+                        }
+
+                        @Override
+                        public Entry<Integer, Neuron> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+
+                            Neuron neuron = neuronAt(index++);
+                            return new SimpleImmutableEntry<>(neuron.getId(), neuron);
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    // Unveränderliche Sicht auf die Connection-Gene, aufsteigend nach Innovation-Number sortiert
+    // Gewicht und Aktivierung lassen sich über die ConnectionGene-Objekte ändern
+    private class ConnectionGeneMap extends AbstractMap<Integer, ConnectionGene> {
+        @Override
+        public int size() {
+            return numGenes;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Integer && indexOfGene((Integer) key) >= 0;
+        }
+
+        @Override
+        public ConnectionGene get(Object key) {
+            int index = key instanceof Integer ? indexOfGene((Integer) key) : -1;
+            return index >= 0 ? geneAt(index) : null;
+        }
+
+        @Override
+        public Set<Entry<Integer, ConnectionGene>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return numGenes;
+                }
+
+                @Override
+                public Iterator<Entry<Integer, ConnectionGene>> iterator() {
+                    return new Iterator<>() {
+                        private int index = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < numGenes;
+                        }
+
+                        @Override
+                        public Entry<Integer, ConnectionGene> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+
+                            ConnectionGene connection = geneAt(index++);
+                            return new SimpleImmutableEntry<>(connection.getInnovationNumber(), connection);
+                        }
+                    };
+                }
+            };
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,347 @@
+package de.nkilders.neat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Noah Kilders
+ */
+// Übersetzt ein Network in eine versteckte Klasse (Hidden Class), deren query()-Methode die Netzausgabe als Folge von
+// Multiplikationen und Additionen ohne Schleifen berechnet
+//
+// Die Gewichte stehen als Konstanten im Bytecode und die Aktivierungen in lokalen Variablen, sodass der JIT-Compiler
+// die gesamte Berechnung in Registern durchführen kann. Neuronen, die keine Ausgabe beeinflussen, werden weggelassen.
+// Da der Code keine Sprünge enthält, braucht die Klassendatei keine StackMapTable.
+// Methoden mit mehr als HUGE_METHOD_LIMIT Bytes Bytecode werden von der JVM nicht kompiliert, solche Genome werden weiterhin interpretiert.
+class GenomeCompiler {
+    // Standardwert von -XX:HugeMethodLimit
+    private static final int HUGE_METHOD_LIMIT = 8000;
+    private static final String CLASS_NAME = "de/nkilders/neat/GeneratedGenome";
+    private static final String COMPILER_NAME = "de/nkilders/neat/GenomeCompiler";
+
+    private GenomeCompiler() {
+    }
+
+    // Übersetzt die aktuelle kompilierte Form von genome, oder gibt bei zu großen Genomen einen CompiledGenome zurück, der diese interpretiert
+    static CompiledGenome compile(Genome genome) {
+        Network network = genome.getNetwork();
+        byte[] bytes = generate(network);
+
+        if (bytes == null) {
+            return inputValues -> {
+                double[] output = new double[network.getNumOutputs()];
+                network.query(inputValues, output);
+                return output;
+            };
+        }
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            return (CompiledGenome) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable exception) {
+            throw new IllegalStateException("Das Genom konnte nicht übersetzt werden!", exception);
+        }
+    }
+
+    // Wird vom erzeugten Code aufgerufen, damit dieser selbst keine Sprünge enthält
+    static void checkInputs(double[] inputValues, int numInputs) {
+        if (inputValues.length != numInputs) {
+            throw new IllegalArgumentException("Brauche " + numInputs + " Eingabewert(e)!");
+        }
+    }
+
+    // Erzeugt die Klassendatei, oder gibt null zurück, falls die query()-Methode zu groß würde
+    private static byte[] generate(Network network) {
+        int numInputs = network.getNumInputs();
+        int numNeurons = network.getNumNeurons();
+        int[] connectionStart = network.getConnectionStart();
+        int[] sources = network.getSources();
+        double[] weights = network.getWeights();
+        int[] outputIndices = network.getOutputIndices();
+
+        // Jedes Neuron belegt zwei Slots ab Slot 2 (0 = this, 1 = Eingabewerte)
+        if (2 + 2L * numNeurons > 0xFFFF) {
+            return null;
+        }
+
+        // Nur Neuronen berechnen, von denen eine Ausgabe abhängt; die Neuronen liegen in topologischer Reihenfolge vor
+        BitSet needed = new BitSet(numNeurons);
+
+        for (int output : outputIndices) {
+            needed.set(output);
+        }
+
+        for (int n = numNeurons - 1; n >= numInputs; n--) {
+            if (needed.get(n)) {
+                for (int c = connectionStart[n]; c < connectionStart[n + 1]; c++) {
+                    needed.set(sources[c]);
+                }
+            }
+        }
+
+        ConstantPool pool = new ConstantPool();
+        Code code = new Code(pool);
+
+        // Eingabewerte überprüfen und in lokale Variablen laden
+        code.op(0x2B); // aload_1
+        code.pushInt(numInputs);
+        code.invokeStatic(COMPILER_NAME, "checkInputs", "([DI)V");
+
+        for (int i = needed.nextSetBit(0); i >= 0 && i < numInputs; i = needed.nextSetBit(i + 1)) {
+            code.op(0x2B); // aload_1
+            code.pushInt(i);
+            code.op(0x31); // daload
+            code.local(0x39, slot(i)); // dstore
+        }
+
+        for (int n = needed.nextSetBit(numInputs); n >= 0; n = needed.nextSetBit(n + 1)) {
+            if (connectionStart[n] == connectionStart[n + 1]) {
+                // sigmoid(0) = 0
+                code.op(0x0E); // dconst_0
+            } else {
+                for (int c = connectionStart[n]; c < connectionStart[n + 1]; c++) {
+                    code.local(0x18, slot(sources[c])); // dload
+                    code.ldc(weights[c]);
+                    code.op(0x6B); // dmul
+
+                    if (c > connectionStart[n]) {
+                        code.op(0x63); // dadd
+                    }
+                }
+
+                // x / (1 + |x|), siehe Network.sigmoid()
+                code.op(0x5C); // dup2
+                code.invokeStatic("java/lang/Math", "abs", "(D)D");
+                code.op(0x0F); // dconst_1
+                code.op(0x63); // dadd
+                code.op(0x6F); // ddiv
+            }
+
+            code.local(0x39, slot(n)); // dstore
+        }
+
+        // Ausgabe-Array füllen und zurückgeben
+        code.pushInt(outputIndices.length);
+        code.op(0xBC, 7); // newarray double
+
+        for (int o = 0; o < outputIndices.length; o++) {
+            code.op(0x59); // dup
+            code.pushInt(o);
+            code.local(0x18, slot(outputIndices[o])); // dload
+            code.op(0x52); // dastore
+        }
+
+        code.op(0xB0); // areturn
+
+        if (code.size() > HUGE_METHOD_LIMIT || pool.size() > 0xFFFF) {
+            return null;
+        }
+
+        Code constructor = new Code(pool);
+        constructor.op(0x2A); // aload_0
+        constructor.invokeSpecial("java/lang/Object", "<init>", "()V");
+        constructor.op(0xB1); // return
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            int thisClass = pool.classRef(CLASS_NAME);
+            int superClass = pool.classRef("java/lang/Object");
+            int compiledGenome = pool.classRef("de/nkilders/neat/CompiledGenome");
+            int codeName = pool.utf8("Code");
+            int initName = pool.utf8("<init>");
+            int initType = pool.utf8("()V");
+            int queryName = pool.utf8("query");
+            int queryType = pool.utf8("([D)[D");
+
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(52);
+            pool.writeTo(out);
+            out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(compiledGenome);
+            out.writeShort(0); // Felder
+            out.writeShort(2); // Methoden
+            writeMethod(out, initName, initType, codeName, constructor, 1, 1);
+            writeMethod(out, queryName, queryType, codeName, code, 8, 2 + 2 * numNeurons);
+            out.writeShort(0); // Attribute
+
+            return bytes.toByteArray();
+        } catch (IOException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int type, int codeName, Code code, int maxStack, int maxLocals) throws IOException {
+        out.writeShort(0x0001); // public
+        out.writeShort(name);
+        out.writeShort(type);
+        out.writeShort(1);
+        out.writeShort(codeName);
+        out.writeInt(2 + 2 + 4 + code.size() + 2 + 2);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.size());
+        code.writeTo(out);
+        out.writeShort(0); // Exception-Tabelle
+        out.writeShort(0); // Attribute
+    }
+
+    // Slot der lokalen Variable mit der Aktivierung des Neurons mit Index n
+    private static int slot(int n) {
+        return 2 + 2 * n;
+    }
+
+    // Konstantenpool der Klassendatei, gleiche Einträge werden nur einmal angelegt
+    private static class ConstantPool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<Object, Integer> indices = new HashMap<>();
+        private int size = 1;
+
+        int utf8(String value) {
+            return add("U" + value, 1, 1, out -> out.writeUTF(value));
+        }
+
+        int classRef(String name) {
+            int utf8 = utf8(name);
+            return add("C" + name, 1, 7, out -> out.writeShort(utf8));
+        }
+
+        int methodRef(String owner, String name, String type) {
+            int classRef = classRef(owner);
+            int nameAndType = add("N" + name + type, 1, 12, out -> {
+                out.writeShort(utf8(name));
+                out.writeShort(utf8(type));
+            });
+
+            return add("M" + owner + "." + name + type, 1, 10, out -> {
+                out.writeShort(classRef);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        int integer(int value) {
+            return add(value, 1, 3, out -> out.writeInt(value));
+        }
+
+        // Doubles belegen zwei Einträge im Konstantenpool
+        int doubleValue(double value) {
+            return add(Double.doubleToRawLongBits(value), 2, 6, out -> out.writeDouble(value));
+        }
+
+        private int add(Object key, int slots, int tag, Entry entry) {
+            Integer index = indices.get(key);
+
+            if (index != null) {
+                return index;
+            }
+
+            try {
+                // Abhängige Einträge (z.B. Utf8 eines NameAndType) vorher anlegen, damit diese nicht mitten im Eintrag landen
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                entry.write(new DataOutputStream(content));
+
+                out.writeByte(tag);
+                content.writeTo(out);
+            } catch (IOException exception) {
+                throw new IllegalStateException(exception);
+            }
+
+            indices.put(key, size);
+            size += slots;
+
+            return size - slots;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void writeTo(DataOutputStream target) throws IOException {
+            target.writeShort(size);
+            bytes.writeTo(target);
+        }
+
+        private interface Entry {
+            void write(DataOutputStream out) throws IOException;
+        }
+    }
+
+    // Bytecode einer Methode
+    private static class Code {
+        private final ConstantPool pool;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        Code(ConstantPool pool) {
+            this.pool = pool;
+        }
+
+        void op(int... values) {
+            for (int value : values) {
+                bytes.write(value);
+            }
+        }
+
+        void u2(int value) {
+            bytes.write(value >>> 8);
+            bytes.write(value);
+        }
+
+        void pushInt(int value) {
+            if (value >= -1 && value <= 5) {
+                op(0x03 + value); // iconst_<value>
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                op(0x10, value); // bipush
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                op(0x11); // sipush
+                u2(value);
+            } else {
+                op(0x13); // ldc_w
+                u2(pool.integer(value));
+            }
+        }
+
+        void ldc(double value) {
+            op(0x14); // ldc2_w
+            u2(pool.doubleValue(value));
+        }
+
+        // Lädt oder speichert eine lokale Variable, ab Slot 256 mit vorangestelltem wide
+        void local(int opcode, int slot) {
+            if (slot <= 0xFF) {
+                op(opcode, slot);
+            } else {
+                op(0xC4, opcode); // wide
+                u2(slot);
+            }
+        }
+
+        void invokeStatic(String owner, String name, String type) {
+            op(0xB8);
+            u2(pool.methodRef(owner, name, type));
+        }
+
+        void invokeSpecial(String owner, String name, String type) {
+            op(0xB7);
+            u2(pool.methodRef(owner, name, type));
+        }
+
+        int size() {
+            return bytes.size();
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            bytes.writeTo(out);
+        }
+    }
+}
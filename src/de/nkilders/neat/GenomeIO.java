@@ -0,0 +1,210 @@
+package de.nkilders.neat;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Noah Kilders
+ */
+// Speichert und lädt Genome und ganze Bevölkerungen in einem kompakten Binärformat (Little Endian)
+//
+// Genom-Datei:       Magic "NEAG", Version, Genom
+// Bevölkerungsdatei: Magic "NEAP", Version, Anzahl der Genome, Offset jedes Genoms in der Datei, Genome
+//
+// Ein Genom besteht aus den Anzahlen, der Fitness und danach den Arrays für Neuronen und Connection-Gene am Stück,
+// sodass beim Lesen keine Objekte pro Gen entstehen. Bevölkerungsdateien werden zum Lesen in den Speicher gemappt.
+public class GenomeIO {
+    private static final int GENOME_MAGIC = 0x4E454147; // "NEAG"
+    private static final int POPULATION_MAGIC = 0x4E454150; // "NEAP"
+    private static final int VERSION = 1;
+
+    // Magic und Version
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    private GenomeIO() {
+    }
+
+    // Speichert ein einzelnes Genom in der Datei path
+    public static void writeGenome(Path path, Genome genome) throws IOException {
+        ByteBuffer buffer = allocate(HEADER_SIZE + genome.getSerializedSize());
+
+        buffer.putInt(GENOME_MAGIC);
+        buffer.putInt(VERSION);
+        genome.writeTo(buffer);
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, buffer);
+        }
+    }
+
+    // Lädt ein mit writeGenome() gespeichertes Genom
+    public static Genome readGenome(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Die Datei " + path + " ist zu groß!");
+            }
+
+            ByteBuffer buffer = allocate((int) channel.size());
+
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+
+            buffer.flip();
+            checkHeader(buffer, GENOME_MAGIC, path);
+
+            return read(buffer, path);
+        }
+    }
+
+    // Speichert alle Genome in der Datei path
+    // Die Genome werden einzeln über einen gemeinsamen Puffer geschrieben, sodass die Datei nicht vollständig in den Speicher passen muss
+    public static void writePopulation(Path path, List<Genome> genomes) throws IOException {
+        int count = genomes.size();
+        ByteBuffer index = allocate(HEADER_SIZE + Integer.BYTES + count * Long.BYTES);
+        long offset = index.capacity();
+
+        index.putInt(POPULATION_MAGIC);
+        index.putInt(VERSION);
+        index.putInt(count);
+
+        int maxSize = 0;
+
+        for (Genome genome : genomes) {
+            int size = genome.getSerializedSize();
+
+            index.putLong(offset);
+            offset += size;
+            maxSize = Math.max(maxSize, size);
+        }
+
+        index.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, index);
+
+            ByteBuffer buffer = allocate(maxSize);
+
+            for (Genome genome : genomes) {
+                buffer.clear();
+                genome.writeTo(buffer);
+                buffer.flip();
+                writeFully(channel, buffer);
+            }
+        }
+    }
+
+    // Lädt alle Genome einer mit writePopulation() gespeicherten Datei
+    public static List<Genome> readPopulation(Path path) throws IOException {
+        ByteBuffer buffer = map(path);
+        int count = readCount(buffer, path);
+        List<Genome> genomes = new ArrayList<>(count);
+
+        // Die Genome liegen direkt hinter dem Index
+        buffer.position(HEADER_SIZE + Integer.BYTES + count * Long.BYTES);
+
+        for (int i = 0; i < count; i++) {
+            genomes.add(read(buffer, path));
+        }
+
+        return genomes;
+    }
+
+    // Lädt nur das Genom mit dem übergebenen Index aus einer mit writePopulation() gespeicherten Datei
+    public static Genome readGenome(Path path, int index) throws IOException {
+        ByteBuffer buffer = map(path);
+        int count = readCount(buffer, path);
+
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Die Datei enthält nur " + count + " Genom(e)!");
+        }
+
+        long offset = buffer.getLong(HEADER_SIZE + Integer.BYTES + index * Long.BYTES);
+
+        if (offset < 0 || offset > buffer.limit()) {
+            throw new IOException("Ungültiger Offset in " + path + "!");
+        }
+
+        buffer.position((int) offset);
+
+        return read(buffer, path);
+    }
+
+    // Gibt die Anzahl der Genome einer Bevölkerungsdatei zurück, ohne diese zu laden
+    public static int countGenomes(Path path) throws IOException {
+        return readCount(map(path), path);
+    }
+
+    // Mappt die Datei zum Lesen in den Speicher
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Die Datei " + path + " ist zu groß!");
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    // Überprüft Magic und Version einer Bevölkerungsdatei und gibt die Anzahl der Genome zurück
+    private static int readCount(ByteBuffer buffer, Path path) throws IOException {
+        checkHeader(buffer, POPULATION_MAGIC, path);
+
+        if (buffer.remaining() < Integer.BYTES) {
+            throw new IOException("Die Datei " + path + " ist unvollständig!");
+        }
+
+        int count = buffer.getInt();
+
+        if (count < 0 || (long) count * Long.BYTES > buffer.remaining()) {
+            throw new IOException("Ungültige Anzahl an Genomen in " + path + "!");
+        }
+
+        return count;
+    }
+
+    // Überprüft Magic und Version am Anfang der Datei
+    private static void checkHeader(ByteBuffer buffer, int magic, Path path) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != magic) {
+            throw new IOException("Die Datei " + path + " hat nicht das erwartete Format!");
+        }
+
+        int version = buffer.getInt();
+
+        if (version != VERSION) {
+            throw new IOException("Die Version " + version + " von " + path + " wird nicht unterstützt!");
+        }
+    }
+
+    // Liest ein Genom und meldet abgeschnittene oder fehlerhafte Daten als IOException
+    private static Genome read(ByteBuffer buffer, Path path) throws IOException {
+        try {
+            return Genome.readFrom(buffer);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException("Die Datei " + path + " ist beschädigt!", e);
+        }
+    }
+
+    private static ByteBuffer allocate(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
\ No newline at end of file
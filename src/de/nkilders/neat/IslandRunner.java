@@ -0,0 +1,193 @@
+package de.nkilders.neat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Noah Kilders
+ */
+// Lässt mehrere NEAT-Instanzen (Inseln) unabhängig voneinander auf jeweils einem eigenen Thread laufen
+// Nach jeweils migrationInterval Generationen warten alle Inseln aufeinander, dann wandern die numMigrants besten Genome
+// jeder Insel entlang der Topologie in andere Inseln aus. Dazwischen teilen sich die Inseln nur ihre Zähler.
+// Das Register der Zähler wird nur an der Barriere geleert, sodass eine Mutation zwischen zwei Migrationen auf allen Inseln
+// dieselbe Innovation-Number erhält, egal in welcher Reihenfolge die Inseln ihre Generationen durchführen.
+// Jede Insel kann zusätzlich einen eigenen Executor für ihre Bewertung verwenden.
+public class IslandRunner {
+    private final List<NEAT> islands;
+    private final Topology topology;
+    private final int migrationInterval;
+    private final int numMigrants;
+
+    // Alle Inseln müssen dieselben Zähler verwenden, damit ausgewanderte Genome mit den Genomen der Zielinsel gekreuzt werden können
+    public IslandRunner(List<NEAT> islands, Topology topology, int migrationInterval, int numMigrants) {
+        if (islands.isEmpty()) {
+            throw new IllegalArgumentException("Es wird mindestens eine Insel gebraucht!");
+        }
+
+        if (migrationInterval < 1) {
+            throw new IllegalArgumentException("Der Abstand zwischen zwei Migrationen muss mindestens eine Generation betragen!");
+        }
+
+        if (numMigrants < 0) {
+            throw new IllegalArgumentException("Die Anzahl der Auswanderer darf nicht negativ sein!");
+        }
+
+        for (int target = 0; target < islands.size(); target++) {
+            NEAT island = islands.get(target);
+
+            if (island.getCounters() != islands.get(0).getCounters()) {
+                throw new IllegalArgumentException("Alle Inseln müssen dieselben Zähler verwenden!");
+            }
+
+            // Einwanderer dürfen nur Kinder ersetzen, nicht die unverändert übernommenen Champions
+            int numSources = 0;
+
+            for (int source = 0; source < islands.size(); source++) {
+                if (topology.connects(source, target, islands.size())) {
+                    numSources++;
+                }
+            }
+
+            int numChildren = island.getPopulationSize() - island.getMaxNumElites();
+
+            if ((long) numMigrants * numSources > numChildren) {
+                throw new IllegalArgumentException("In Insel " + target + " können höchstens " + numChildren + " Genome einwandern!");
+            }
+        }
+
+        this.islands = new ArrayList<>(islands);
+        this.topology = topology;
+        this.migrationInterval = migrationInterval;
+        this.numMigrants = numMigrants;
+    }
+
+    // Führt auf jeder Insel numGenerations Generationen durch und kehrt zurück, sobald alle Inseln fertig sind
+    // Schlägt eine Insel fehl, hören die übrigen nach ihrer aktuellen Generation auf und die Exception wird weitergeworfen
+    public void run(int numGenerations) throws InterruptedException {
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        Counters counters = islands.get(0).getCounters();
+        // Inseln melden sich ab, sobald sie fertig oder fehlgeschlagen sind, sodass niemand auf sie wartet
+        Phaser barrier = new Phaser(islands.size()) {
+            @Override
+            protected boolean onAdvance(int phase, int registeredParties) {
+                // Eine Exception darf die Barriere nicht verlassen, sonst rückt sie nie weiter und die übrigen Inseln warten ewig
+                // Stattdessen wird der Phaser beendet, wodurch alle wartenden Inseln freigegeben werden
+                try {
+                    if (registeredParties > 0 && failure.get() == null) {
+                        counters.startGeneration();
+                        migrate();
+                    }
+                } catch (RuntimeException exception) {
+                    failure.compareAndSet(null, exception);
+                    return true;
+                }
+
+                return registeredParties == 0;
+            }
+        };
+
+        counters.startGeneration();
+
+        for (NEAT island : islands) {
+            island.setSharedRegistry(true);
+        }
+
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < islands.size(); i++) {
+            NEAT island = islands.get(i);
+
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int g = 1; g <= numGenerations && failure.get() == null; g++) {
+                        island.processGeneration();
+
+                        if (g % migrationInterval == 0 && g < numGenerations) {
+                            barrier.arriveAndAwaitAdvance();
+                        }
+                    }
+                } catch (RuntimeException exception) {
+                    failure.compareAndSet(null, exception);
+                } finally {
+                    island.setSharedRegistry(false);
+                    barrier.arriveAndDeregister();
+                }
+            }, "NEAT-Island-" + i);
+
+            threads.add(thread);
+            thread.start();
+        }
+
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException exception) {
+            failure.compareAndSet(null, new IllegalStateException("Die Inseln wurden unterbrochen!"));
+            throw exception;
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    // Wird an der Barriere ausgeführt, während alle Inseln warten
+    // Zuerst werden die Auswanderer aller Inseln bestimmt, damit eingewanderte Genome nicht direkt weiterwandern
+    private void migrate() {
+        List<List<Genome>> emigrants = new ArrayList<>();
+
+        for (NEAT island : islands) {
+            emigrants.add(island.getMostFitGenomes(numMigrants));
+        }
+
+        for (int target = 0; target < islands.size(); target++) {
+            List<Genome> migrants = new ArrayList<>();
+
+            for (int source = 0; source < islands.size(); source++) {
+                if (topology.connects(source, target, islands.size())) {
+                    migrants.addAll(emigrants.get(source));
+                }
+            }
+
+            islands.get(target).immigrate(migrants);
+        }
+    }
+
+    // Gibt das beste Genom aller Inseln zurück
+    public Genome getMostFitGenome() {
+        Genome mostFit = null;
+
+        for (NEAT island : islands) {
+            if (mostFit == null || island.getMostFitGenome().getFitness() > mostFit.getFitness()) {
+                mostFit = island.getMostFitGenome();
+            }
+        }
+
+        return mostFit;
+    }
+
+    // Gibt alle Inseln zurück
+    public List<NEAT> getIslands() {
+        return islands;
+    }
+
+    // Legt fest, welche Inseln Genome an welche anderen Inseln abgeben
+    public enum Topology {
+        // Insel i gibt ihre besten Genome an Insel i + 1 ab, die letzte an die erste
+        RING,
+        // Jede Insel gibt ihre besten Genome an alle anderen Inseln ab
+        FULLY_CONNECTED;
+
+        // Gibt zurück, ob Insel source Genome an Insel target abgibt
+        boolean connects(int source, int target, int numIslands) {
+            if (source == target) {
+                return false;
+            }
+
+            return this == FULLY_CONNECTED || target == (source + 1) % numIslands;
+        }
+    }
+}
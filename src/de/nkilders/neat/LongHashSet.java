@@ -0,0 +1,107 @@
+package de.nkilders.neat;
+
+import java.util.Arrays;
+
+/**
+ * @author Noah Kilders
+ */
+// Menge von long-Werten mit offener Adressierung, die ohne Objekte pro Eintrag auskommt
+// Long.MIN_VALUE markiert leere Plätze und kann daher nicht gespeichert werden
+public class LongHashSet {
+    // Markiert einen leeren Platz
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int size;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        int capacity = 16;
+
+        while (capacity < expectedSize * 2) {
+            capacity *= 2;
+        }
+
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    // Kopiert die Menge
+    public LongHashSet(LongHashSet set) {
+        keys = set.keys.clone();
+        size = set.size;
+    }
+
+    // Fügt einen Wert hinzu und gibt zurück, ob dieser neu war
+    public boolean add(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Long.MIN_VALUE kann nicht gespeichert werden!");
+        }
+
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+
+        int index = indexOf(keys, key);
+
+        if (keys[index] == key) {
+            return false;
+        }
+
+        keys[index] = key;
+        size++;
+
+        return true;
+    }
+
+    // Gibt zurück, ob der Wert enthalten ist
+    public boolean contains(long key) {
+        return key != EMPTY && keys[indexOf(keys, key)] == key;
+    }
+
+    // Entfernt alle Werte
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    // Gibt die Anzahl der Werte zurück
+    public int size() {
+        return size;
+    }
+
+    // Verdoppelt die Kapazität und verteilt alle Werte neu
+    private void resize() {
+        long[] newKeys = new long[keys.length * 2];
+        Arrays.fill(newKeys, EMPTY);
+
+        for (long key : keys) {
+            if (key != EMPTY) {
+                newKeys[indexOf(newKeys, key)] = key;
+            }
+        }
+
+        keys = newKeys;
+    }
+
+    // Gibt den Platz des Wertes zurück, oder den ersten freien Platz, an dem dieser stehen müsste (lineares Sondieren)
+    private static int indexOf(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+
+        while (keys[index] != EMPTY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+
+        return index;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
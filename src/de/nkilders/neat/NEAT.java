@@ -1,69 +1,284 @@
 package de.nkilders.neat;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.random.RandomGenerator;
 
 /**
  * @author Noah Kilders
  */
 public abstract class NEAT {
-    private static final Random RANDOM = new Random();
+    // Anzahl der Genome, die bei paralleler Spezifizierung von einer Aufgabe verglichen werden
+    private static final int SPECIATION_CHUNK_SIZE = 64;
+    // Anzahl der Kinder, die bei paralleler Reproduktion von einer Aufgabe erzeugt werden
+    private static final int REPRODUCTION_CHUNK_SIZE = 64;
+    // Schreibt Checkpoints im Hintergrund, damit processGeneration() nicht darauf warten muss
+    private static final ExecutorService CHECKPOINT_WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "NEAT-Checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private final Genome startGenome;
     private final int populationSize;
     private Genome mostFitGenome;
     private final List<Genome> genomes;
     private final List<Species> species;
+    // Zieht Spezies nach ihrer Adjusted Fitness, wird nach jeder Selektion neu erstellt
+    private AliasTable speciesSelection;
+    // Unverändert in die aktuelle Generation übernommene Champions, die ihre Fitness behalten
+    private final Set<Genome> elites = Collections.newSetFromMap(new IdentityHashMap<>());
     private int generation;
+    // Zähler für Innovation-Numbers und Neuronen-IDs dieses Durchlaufs
+    private final Counters counters;
+    // Führt die Bewertung parallel aus, sofern gesetzt
+    private Executor executor;
+    // Seed des Durchlaufs, aus dem der Zufallsgenerator jedes Genoms jeder Generation abgeleitet wird
+    private final long seed;
+    // Im deterministischen Modus werden strukturelle Mutationen nacheinander in der Reihenfolge der Genome durchgeführt,
+    // sodass Innovation-Numbers und Neuronen-IDs unabhängig von der Anzahl der Threads vergeben werden
+    private final boolean deterministic;
+
+    // Datei und Abstand in Generationen für automatische Checkpoints
+    private Path checkpointPath;
+    private int checkpointInterval;
+    // Zuletzt gestarteter Checkpoint
+    private CompletableFuture<Void> pendingCheckpoint;
+
+    // Werden nach jeder Generation benachrichtigt
+    private final List<GenerationListener> listeners = new CopyOnWriteArrayList<>();
+    // Gibt nach jeder Generation eine Zeile auf der Konsole aus
+    private boolean logging = true;
+    // Fitness bereits bewerteter Genome, sofern gesetzt
+    private FitnessCache fitnessCache;
+    // Bewertet die Genome anstelle von evaluateGenome(), sofern gesetzt
+    private EvaluationBackend evaluationBackend;
+    // Höchstzahl gleichzeitig laufender Bewertungen über evaluateGenomeAsync(), bei 0 wird evaluateGenome() verwendet
+    private int maxEvaluationsInFlight;
+    // evaluateGenomeAsync() führt evaluateGenome() standardmäßig auf virtuellen Threads aus
+    private boolean virtualThreads;
+
+    // Schützt Bevölkerung und Spezies, während im Steady-State-Modus mehrere Threads Kinder einsetzen
+    private final Object steadyStateLock = new Object();
+    // Gibt an, ob die aktuellen Genome bewertet und in Spezies eingeteilt sind, sodass processSteadyState() direkt Kinder erzeugen kann
+    private boolean steadyState;
+    // Anzahl der im Steady-State-Modus in der aktuellen Generation erzeugten Kinder
+    private int births;
+    // Wird von IslandRunner gesetzt, der das Register der gemeinsamen Zähler dann nur an den Migrationspunkten leert,
+    // während alle Inseln warten, damit gleiche Mutationen auf allen Inseln unabhängig vom Zeitablauf dieselbe Nummer erhalten
+    private boolean sharedRegistry;
+    // Position jedes Genoms in genomes, solange der Steady-State-Modus läuft
+    private final Map<Genome, Integer> slots = new IdentityHashMap<>();
 
     public NEAT(Genome startGenome, int populationSize) {
+        this(startGenome, populationSize, new Counters(startGenome.getMaxInnovationNumber() + 1, startGenome.getMaxNeuronId() + 1));
+    }
+
+    // Mit gemeinsamen Zählern können mehrere NEAT-Instanzen Genome austauschen, ohne dass sich deren Innovation-Numbers überschneiden
+    public NEAT(Genome startGenome, int populationSize, Counters counters) {
+        this(startGenome, populationSize, counters, new SplittableRandom().nextLong(), false);
+    }
+
+    // Deterministischer Durchlauf: Mit demselben Seed und einer deterministischen Bewertung entstehen unabhängig vom Executor dieselben Genome
+    public NEAT(Genome startGenome, int populationSize, long seed) {
+        this(startGenome, populationSize, new Counters(startGenome.getMaxInnovationNumber() + 1, startGenome.getMaxNeuronId() + 1), seed);
+    }
+
+    // Deterministischer Durchlauf mit gemeinsamen Zählern, die dann aber von keiner anderen Instanz gleichzeitig verwendet werden dürfen
+    public NEAT(Genome startGenome, int populationSize, Counters counters, long seed) {
+        this(startGenome, populationSize, counters, seed, true);
+    }
+
+    private NEAT(Genome startGenome, int populationSize, Counters counters, long seed, boolean deterministic) {
         this.startGenome = startGenome;
         this.populationSize = populationSize;
         this.mostFitGenome = startGenome;
         this.genomes = new ArrayList<>();
         this.species = new ArrayList<>();
         this.generation = 1;
+        this.counters = counters;
+        this.seed = seed;
+        this.deterministic = deterministic;
+        this.pendingCheckpoint = CompletableFuture.completedFuture(null);
 
         // Füllt die Bevölkerung mit Klonen von startGenome, deren Gewichte verändert wurden, auf
         for (int i = 0; i < populationSize; i++) {
             Genome g = startGenome.copy();
-            g.randomizeWeights();
+            g.setCounters(counters);
+            g.randomizeWeights(getRandom(0, i));
             genomes.add(g);
         }
     }
 
+    // Setzt einen mit setCheckpoint() oder writeCheckpoint() gespeicherten Durchlauf exakt fort
+    public NEAT(Path checkpoint) throws IOException {
+        this(Checkpoint.read(checkpoint));
+    }
+
+    private NEAT(Checkpoint checkpoint) {
+        this.startGenome = checkpoint.startGenome;
+        this.populationSize = checkpoint.populationSize;
+        this.mostFitGenome = checkpoint.mostFitGenome;
+        this.genomes = new ArrayList<>(checkpoint.genomes);
+        this.species = new ArrayList<>();
+        this.generation = checkpoint.generation;
+        this.counters = new Counters(checkpoint.nextConnectionInnovation, checkpoint.nextNeuronId);
+        this.seed = checkpoint.seed;
+        this.deterministic = checkpoint.deterministic;
+        this.pendingCheckpoint = CompletableFuture.completedFuture(null);
+
+        startGenome.setCounters(counters);
+        mostFitGenome.setCounters(counters);
+
+        // Die Spezies enthalten nur noch ihren Repräsentanten, mehr wird für die Einteilung der nächsten Generation nicht gebraucht
+        for (int s = 0; s < checkpoint.representatives.size(); s++) {
+            Genome representative = checkpoint.representatives.get(s);
+            representative.setCounters(counters);
+
+            Species restored = new Species(representative);
+            restored.restore(checkpoint.speciesAges[s], checkpoint.speciesBestFitness[s], checkpoint.speciesStagnation[s]);
+            species.add(restored);
+        }
+
+        for (int i = 0; i < genomes.size(); i++) {
+            Genome genome = genomes.get(i);
+            genome.setCounters(counters);
+            genome.setSpecies(checkpoint.speciesIndices[i] >= 0 ? species.get(checkpoint.speciesIndices[i]) : null);
+
+            if (checkpoint.elites[i]) {
+                elites.add(genome);
+            }
+        }
+    }
+
     // Führt Spezifizierung, Bewertung, Selektion, Reproduktion und Mutation für die aktuelle Generation durch und erzeugt eine neue Generation
+    // Ist ein im Hintergrund geschriebener Checkpoint fehlgeschlagen, wird dies hier als UncheckedIOException gemeldet
     public void processGeneration() {
+        if (pendingCheckpoint.isCompletedExceptionally()) {
+            try {
+                awaitCheckpoint();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        GenerationEvent event = new GenerationEvent();
+        event.begin();
+        steadyState = false;
+
         // Spezifizierung
-        species.clear();
-        for (Genome genome : genomes) {
-            boolean foundSpecies = false;
-
-            // Passt genome in eine existierende Spezies?
-            for (Species species : species) {
-                if (genome.isCompatible(species.getRepresentative())) {
-                    species.addGenome(genome);
-                    foundSpecies = true;
-                    break;
-                }
+        long start = System.nanoTime();
+        PhaseEvent phase = beginPhase();
+        speciate();
+        commitPhase(phase, "Spezifizierung");
+
+        // Bewerten
+        long speciated = System.nanoTime();
+        phase = beginPhase();
+        int numEvaluations = evaluateGenomes();
+        commitPhase(phase, "Bewertung");
+
+        // Selektion
+        long evaluated = System.nanoTime();
+        phase = beginPhase();
+
+        selectMostFit();
+        cullStagnantSpecies();
+        commitPhase(phase, "Selektion");
+        // Die Ausgabe und das Erfassen der Kennzahlen zählen weder zur Selektion noch zur Reproduktion
+        long selected = System.nanoTime();
+
+        if (logging) {
+            System.out.println(String.format("Generation #%s\t\t Population: %s\t\t NumSpecies: %s\t\t Fitness: %s", generation, populationSize, species.size(), mostFitGenome.getFitness()));
+        }
+
+        // Die Kennzahlen beziehen sich auf die bewerteten Genome und müssen daher vor der Reproduktion erfasst werden
+        boolean collectStats = !listeners.isEmpty() || event.isEnabled();
+        double[] populationStats = collectStats ? getPopulationStats() : null;
+
+        // Reproduktion
+        long reproducing = System.nanoTime();
+        phase = beginPhase();
+        if (!sharedRegistry) {
+            counters.startGeneration();
+        }
+
+        reproduce();
+        commitPhase(phase, "Reproduktion");
+        long reproduced = System.nanoTime();
+
+        if (collectStats) {
+            GenerationStats stats = new GenerationStats(generation, populationSize, species.size(), numEvaluations,
+                    speciated - start, evaluated - speciated, selected - evaluated, reproduced - reproducing,
+                    mostFitGenome.getFitness(), populationStats[0],
+                    (int) populationStats[1], populationStats[2], (int) populationStats[3],
+                    (int) populationStats[4], populationStats[5], (int) populationStats[6]);
+
+            event.end();
+
+            if (event.shouldCommit()) {
+                event.generation = generation;
+                event.numSpecies = stats.getNumSpecies();
+                event.numEvaluations = stats.getNumEvaluations();
+                event.bestFitness = stats.getBestFitness();
+                event.meanFitness = stats.getMeanFitness();
+                event.meanConnections = stats.getMeanConnections();
+                event.speciation = stats.getSpeciationNanos();
+                event.evaluation = stats.getEvaluationNanos();
+                event.selection = stats.getSelectionNanos();
+                event.reproduction = stats.getReproductionNanos();
+                event.commit();
             }
 
-            // Erstelle eine neue Spezies
-            if (!foundSpecies) {
-                Species newSpecies = new Species(genome);
-                species.add(newSpecies);
+            for (GenerationListener listener : listeners) {
+                listener.generationProcessed(stats);
             }
         }
 
-        // Bewerten
-        for (Genome genome : genomes) {
-            genome.setFitness(evaluateGenome(genome));
+        generation++;
+
+        if (checkpointPath != null && (generation - 1) % checkpointInterval == 0) {
+            Checkpoint checkpoint = createCheckpoint();
+            Path path = checkpointPath;
+
+            // Der Checkpoint wird auch nach einem fehlgeschlagenen Vorgänger geschrieben, dessen Fehler aber weitergereicht
+            pendingCheckpoint = pendingCheckpoint.handle((result, failure) -> failure)
+                    .thenAcceptAsync(failure -> {
+                        try {
+                            checkpoint.write(path);
+                        } catch (IOException exception) {
+                            if (failure != null) {
+                                exception.addSuppressed(failure);
+                            }
+
+                            throw new CompletionException(exception);
+                        }
+
+                        if (failure != null) {
+                            throw failure instanceof CompletionException ? (CompletionException) failure : new CompletionException(failure);
+                        }
+                    }, CHECKPOINT_WRITER);
         }
+    }
 
+    // Berechnet die Adjusted Fitness aller Spezies, sucht das beste Genom und erstellt die Tabellen für die Auswahl der Eltern
+    private void selectMostFit() {
         for (Species species : species) {
             species.calculateAdjustedFitness();
         }
 
-        // Selektion
         mostFitGenome = null;
 
         for (Species species : species) {
@@ -74,92 +289,741 @@ public abstract class NEAT {
             } else if (genome.getFitness() > mostFitGenome.getFitness()) {
                 mostFitGenome = genome;
             }
+
+            species.buildSelection();
         }
 
-        System.out.println(String.format("Generation #%s\t\t Population: %s\t\t NumSpecies: %s\t\t Fitness: %s", generation, populationSize, species.size(), mostFitGenome.getFitness()));
+        buildSpeciesSelection();
+    }
 
-        // Reproduktion
-        List<Genome> nextGeneration = new ArrayList<>();
-        while (nextGeneration.size() < populationSize) {
-            Genome parent1 = getRandomGenome(getRandomSpecies());
-            Genome parent2 = getRandomGenome(getRandomSpecies());
+    // Aktualisiert die Stagnation aller Spezies und entfernt Spezies, deren beste Fitness sich seit STAGNATION_LIMIT Generationen nicht verbessert hat
+    // Die Spezies mit dem besten Genom bleibt immer erhalten. Die Genome entfernter Spezies erhalten keine Nachkommen.
+    private void cullStagnantSpecies() {
+        for (Species species : species) {
+            species.updateStagnation();
+        }
 
-            Genome child;
+        if (Config.STAGNATION_LIMIT > 0
+                && species.removeIf(species -> species.getStagnation() >= Config.STAGNATION_LIMIT && species != mostFitGenome.getSpecies())) {
+            buildSpeciesSelection();
+        }
+    }
 
-            // Mutation
-            if (Math.random() <= Config.CROSSOVER_CHANCE) {
-                if (parent1.getFitness() > parent2.getFitness()) {
-                    child = Genome.crossover(parent1, parent2);
-                } else {
-                    child = Genome.crossover(parent2, parent1);
-                }
+    // Erstellt die Tabelle, aus der Spezies nach ihrer Adjusted Fitness gezogen werden
+    private void buildSpeciesSelection() {
+        double[] adjustedFitness = new double[species.size()];
+
+        for (int s = 0; s < adjustedFitness.length; s++) {
+            adjustedFitness[s] = species.get(s).getAdjustedFitnessSum();
+        }
+
+        speciesSelection = new AliasTable(adjustedFitness);
+    }
+
+    // Berechnet durchschnittliche Fitness sowie minimale, durchschnittliche und maximale Anzahl an Neuronen und Verbindungen der aktuellen Genome
+    // {meanFitness, minNeurons, meanNeurons, maxNeurons, minConnections, meanConnections, maxConnections}
+    private double[] getPopulationStats() {
+        double fitnessSum = 0.0D;
+        int minNeurons = Integer.MAX_VALUE;
+        int maxNeurons = 0;
+        long neuronSum = 0;
+        int minConnections = Integer.MAX_VALUE;
+        int maxConnections = 0;
+        long connectionSum = 0;
+
+        for (Genome genome : genomes) {
+            int neurons = genome.getNumNeurons();
+            int connections = genome.getNumGenes();
+
+            fitnessSum += genome.getFitness();
+            minNeurons = Math.min(minNeurons, neurons);
+            maxNeurons = Math.max(maxNeurons, neurons);
+            neuronSum += neurons;
+            minConnections = Math.min(minConnections, connections);
+            maxConnections = Math.max(maxConnections, connections);
+            connectionSum += connections;
+        }
+
+        int count = Math.max(genomes.size(), 1);
+
+        return new double[]{
+                fitnessSum / count,
+                genomes.isEmpty() ? 0 : minNeurons, neuronSum / (double) count, maxNeurons,
+                genomes.isEmpty() ? 0 : minConnections, connectionSum / (double) count, maxConnections
+        };
+    }
+
+    // Startet die Zeitmessung einer Phase für JFR
+    private static PhaseEvent beginPhase() {
+        PhaseEvent event = new PhaseEvent();
+        event.begin();
+        return event;
+    }
+
+    // Beendet die Zeitmessung einer Phase und zeichnet diese auf, sofern JFR läuft
+    private void commitPhase(PhaseEvent event, String phase) {
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.generation = generation;
+            event.phase = phase;
+            event.commit();
+        }
+    }
+
+    // Hält den aktuellen Zustand fest
+    // Die Genome werden dabei nur kopiert, wenn sie danach verändert werden (Copy-on-Write), sodass der Checkpoint im Hintergrund geschrieben werden kann
+    private Checkpoint createCheckpoint() {
+        List<Genome> representatives = new ArrayList<>();
+        Map<Species, Integer> speciesIndices = new IdentityHashMap<>();
+        int[] ages = new int[species.size()];
+        double[] bestFitness = new double[species.size()];
+        int[] stagnation = new int[species.size()];
+
+        for (Species species : species) {
+            ages[representatives.size()] = species.getAge();
+            bestFitness[representatives.size()] = species.getBestFitness();
+            stagnation[representatives.size()] = species.getStagnation();
+            speciesIndices.put(species, representatives.size());
+            representatives.add(snapshot(species.getMostFitGenome() != null ? species.getMostFitGenome() : species.getRepresentative()));
+        }
+
+        List<Genome> snapshots = new ArrayList<>(genomes.size());
+        int[] indices = new int[genomes.size()];
+        boolean[] elite = new boolean[genomes.size()];
+
+        for (int i = 0; i < genomes.size(); i++) {
+            snapshots.add(snapshot(genomes.get(i)));
+            indices[i] = speciesIndices.getOrDefault(genomes.get(i).getSpecies(), -1);
+            elite[i] = elites.contains(genomes.get(i));
+        }
+
+        return new Checkpoint(generation, seed, deterministic, populationSize, counters.peekNextConnectionInnovation(), counters.peekNextNeuronId(),
+                snapshot(startGenome), snapshot(mostFitGenome), representatives, ages, bestFitness, stagnation, snapshots, indices, elite);
+    }
+
+    // Kopiert ein Genom einschließlich seiner Fitness
+    private static Genome snapshot(Genome genome) {
+        Genome copy = genome.copy();
+        copy.setFitness(genome.getFitness());
+        return copy;
+    }
+
+    // Schreibt nach jeweils interval Generationen einen Checkpoint nach path, mit null werden keine Checkpoints mehr geschrieben
+    // Die Checkpoints werden im Hintergrund geschrieben, mit awaitCheckpoint() kann auf den letzten gewartet werden
+    public void setCheckpoint(Path path, int interval) {
+        if (path != null && interval < 1) {
+            throw new IllegalArgumentException("Der Abstand zwischen zwei Checkpoints muss mindestens eine Generation betragen!");
+        }
+
+        this.checkpointPath = path;
+        this.checkpointInterval = interval;
+    }
+
+    // Wartet, bis der zuletzt gestartete Checkpoint geschrieben wurde, und wirft den Fehler eines fehlgeschlagenen Checkpoints weiter
+    // Jeder Fehler wird nur einmal gemeldet
+    public void awaitCheckpoint() throws IOException {
+        try {
+            pendingCheckpoint.join();
+        } catch (CompletionException exception) {
+            pendingCheckpoint = CompletableFuture.completedFuture(null);
+
+            if (exception.getCause() instanceof IOException) {
+                throw (IOException) exception.getCause();
+            }
+
+            throw exception;
+        }
+    }
+
+    // Schreibt sofort einen Checkpoint nach path und wartet, bis dieser geschrieben wurde
+    public void writeCheckpoint(Path path) throws IOException {
+        createCheckpoint().write(path);
+    }
+
+    // Gibt den Zufallsgenerator für das Genom an Position slot der übergebenen Generation zurück, der sich allein aus dem Seed des Durchlaufs ergibt
+    private SplittableRandom getRandom(int generation, int slot) {
+        long z = seed + (((long) generation << 32) | slot) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return new SplittableRandom(z ^ (z >>> 33));
+    }
+
+    // Erzeugt die nächste Generation, bei gesetztem Executor parallel
+    // Jede Spezies erhält vorab einen Anteil der Plätze proportional zu ihrer Adjusted Fitness (siehe getOffspringCounts()).
+    // Auf den ersten Plätzen einer Spezies mit mindestens ELITISM_MIN_SPECIES_SIZE Genomen werden ihre ELITISM besten Genome unverändert übernommen,
+    // die übrigen Plätze füllen Kinder zweier Eltern dieser Spezies.
+    // Jedes Kind erhält einen eigenen, aus Seed, Generation und seiner Position abgeleiteten Zufallsgenerator
+    private void reproduce() {
+        Genome[] nextGeneration = new Genome[populationSize];
+        SplittableRandom[] randoms = new SplittableRandom[populationSize];
+        // Spezies jedes Platzes und Rang des übernommenen Champions, oder -1 für ein Kind
+        Species[] slotSpecies = new Species[populationSize];
+        int[] eliteRanks = new int[populationSize];
+        int[] offspringCounts = getOffspringCounts();
+        int slot = 0;
+
+        for (int s = 0; s < species.size(); s++) {
+            Species species = this.species.get(s);
+            int numElites = species.getGenomes().size() >= Config.ELITISM_MIN_SPECIES_SIZE
+                    ? Math.min(Math.min(Config.ELITISM, offspringCounts[s]), species.getGenomes().size()) : 0;
+
+            for (int k = 0; k < offspringCounts[s]; k++, slot++) {
+                slotSpecies[slot] = species;
+                eliteRanks[slot] = k < numElites ? k : -1;
+            }
+        }
+
+        runParallel(populationSize, REPRODUCTION_CHUNK_SIZE, i -> {
+            randoms[i] = getRandom(generation, i);
+
+            if (eliteRanks[i] >= 0) {
+                // Die Genome einer Spezies sind seit der Selektion aufsteigend nach Fitness sortiert
+                List<Genome> speciesGenomes = slotSpecies[i].getGenomes();
+                nextGeneration[i] = snapshot(speciesGenomes.get(speciesGenomes.size() - 1 - eliteRanks[i]));
+                nextGeneration[i].setSpecies(slotSpecies[i]);
             } else {
-                if (RANDOM.nextBoolean()) {
-                    child = parent1.copy();
-                } else {
-                    child = parent2.copy();
+                nextGeneration[i] = createChild(slotSpecies[i], randoms[i]);
+            }
+        });
+
+        // Die Zähler vergeben ihre Nummern in der Reihenfolge der Aufrufe, die nur ohne Threads feststeht
+        if (deterministic) {
+            for (int i = 0; i < populationSize; i++) {
+                if (eliteRanks[i] < 0) {
+                    nextGeneration[i].mutateStructure(randoms[i]);
                 }
             }
+        }
 
-            child.mutate();
+        genomes.clear();
+        genomes.addAll(Arrays.asList(nextGeneration));
+        elites.clear();
 
-            nextGeneration.add(child);
+        for (int i = 0; i < populationSize; i++) {
+            if (eliteRanks[i] >= 0) {
+                elites.add(nextGeneration[i]);
+            }
         }
+    }
 
-        genomes.clear();
-        genomes.addAll(nextGeneration);
+    // Verteilt die Plätze der nächsten Generation nach dem Verfahren der größten Reste proportional zur Adjusted Fitness auf die Spezies
+    // Negative Werte werden wie in AliasTable um den kleinsten Wert verschoben, ist die Summe 0, erhalten alle Spezies gleich viele Plätze.
+    // Bei gleichen Resten erhält die Spezies mit dem kleineren Index den Platz, sodass die Verteilung nicht vom Zufall abhängt.
+    private int[] getOffspringCounts() {
+        int numSpecies = species.size();
+        double[] shares = new double[numSpecies];
+        double min = Double.POSITIVE_INFINITY;
 
-        generation++;
+        for (int s = 0; s < numSpecies; s++) {
+            shares[s] = species.get(s).getAdjustedFitnessSum();
+            min = Math.min(min, shares[s]);
+        }
+
+        double total = 0.0D;
+
+        for (int s = 0; s < numSpecies; s++) {
+            shares[s] -= Math.min(min, 0.0D);
+            total += shares[s];
+        }
+
+        int[] counts = new int[numSpecies];
+        Integer[] order = new Integer[numSpecies];
+        int assigned = 0;
+
+        for (int s = 0; s < numSpecies; s++) {
+            shares[s] = total > 0.0D ? shares[s] / total * populationSize : populationSize / (double) numSpecies;
+            counts[s] = Math.min((int) shares[s], populationSize - assigned);
+            shares[s] -= counts[s];
+            assigned += counts[s];
+            order[s] = s;
+        }
+
+        // Die übrigen Plätze erhalten die Spezies mit den größten Resten
+        Arrays.sort(order, (a, b) -> Double.compare(shares[b], shares[a]));
+
+        for (int r = 0; assigned < populationSize; r = (r + 1) % numSpecies, assigned++) {
+            counts[order[r]]++;
+        }
+
+        return counts;
     }
 
-    // Gibt eine zufällige Spezies zurück, wobei Spezies mit höherer Adjusted Fitness mit größerer Wahrscheinlichkeit zurückgegeben werden
-    // Übernommen von https://stackoverflow.com/questions/20327958/random-number-with-probabilities/20329901#20329901 mit eigenen Änderungen
-    private Species getRandomSpecies() {
-        double totalFitness = 0.0D;
+    // Wählt zwei Eltern aus der übergebenen Spezies aus und erzeugt aus diesen ein mutiertes Kind
+    private Genome createChild(Species species, RandomGenerator random) {
+        Genome parent1 = species.getRandomGenome(random);
+        Genome parent2 = species.getRandomGenome(random);
+        Genome child = breed(parent1, parent2, random);
 
-        for (Species species : species) {
-            totalFitness += species.getAdjustedFitnessSum();
+        if (deterministic) {
+            // Strukturelle Mutationen folgen in reproduce()
+            child.mutateWeights(random);
+        } else {
+            child.mutate(random);
+        }
+
+        return child;
+    }
+
+    // Kreuzt oder kopiert die Eltern, ohne das Kind zu mutieren
+    private static Genome breed(Genome parent1, Genome parent2, RandomGenerator random) {
+        Genome child;
+
+        if (random.nextDouble() <= Config.CROSSOVER_CHANCE) {
+            if (parent1.getFitness() > parent2.getFitness()) {
+                child = Genome.crossover(parent1, parent2, random);
+                child.setSpecies(parent1.getSpecies());
+            } else {
+                child = Genome.crossover(parent2, parent1, random);
+                child.setSpecies(parent2.getSpecies());
+            }
+        } else {
+            if (random.nextBoolean()) {
+                child = parent1.copy();
+                child.setSpecies(parent1.getSpecies());
+            } else {
+                child = parent2.copy();
+                child.setSpecies(parent2.getSpecies());
+            }
+        }
+
+        return child;
+    }
+
+    // Steady-State-Modus nach dem Vorbild von rtNEAT: Erzeugt und bewertet numChildren einzelne Kinder ohne Generationsgrenze
+    // numWorkers Aufgaben laufen dabei auf dem Executor (ohne Executor nacheinander auf dem aufrufenden Thread). Jede wählt zwei Eltern aus
+    // einer Spezies aus, erzeugt und bewertet ein Kind und setzt es anstelle des schlechtesten Genoms seiner Spezies ein, sofern es nicht schlechter ist,
+    // sodass kein Thread auf langsame Bewertungen warten muss. Passt das Kind in keine Spezies, gründet es eine neue und ersetzt das Genom
+    // mit der geringsten Adjusted Fitness der Bevölkerung, sofern seine eigene nicht geringer ist. Schlechtere Kinder werden verworfen.
+    // Nach jeweils populationSize Kindern beginnt eine neue Generation. Die Bewertung erfolgt immer über evaluateGenome() (und den Fitness-Cache),
+    // bei mehreren Aufgaben hängt das Ergebnis von der Reihenfolge der Bewertungen ab und ist daher auch mit Seed nicht reproduzierbar.
+    public void processSteadyState(int numChildren, int numWorkers) {
+        if (numWorkers < 1) {
+            throw new IllegalArgumentException("Es wird mindestens eine Aufgabe gebraucht!");
+        }
+
+        // Die Bevölkerung muss zuerst einmal bewertet und eingeteilt werden
+        if (!steadyState) {
+            speciate();
+            evaluateGenomes();
+            selectMostFit();
+            births = 0;
+            steadyState = true;
+            slots.clear();
+
+            for (int i = 0; i < genomes.size(); i++) {
+                slots.put(genomes.get(i), i);
+            }
         }
 
-        double choice = RANDOM.nextDouble() * totalFitness;
-        double subTotalFitness = 0.0D;
+        AtomicInteger remaining = new AtomicInteger(numChildren);
+
+        runParallel(numWorkers, 1, worker -> {
+            while (remaining.getAndDecrement() > 0) {
+                Genome parent1;
+                Genome parent2;
+                SplittableRandom random;
+
+                synchronized (steadyStateLock) {
+                    random = getRandom(generation, births++);
+                    Species species = getRandomSpecies(random);
+                    parent1 = species.getRandomGenome(random);
+                    parent2 = species.getRandomGenome(random);
+                }
+
+                // Die Eltern werden nur gelesen und können daher außerhalb der Sperre gekreuzt werden
+                Genome child = breed(parent1, parent2, random);
+                child.mutate(random);
+                evaluateGenome(child, fitnessCache);
+
+                synchronized (steadyStateLock) {
+                    replaceWorst(child);
+                    startSteadyStateGeneration();
+                }
+            }
+        });
+    }
+
+    // Bewertet ein einzelnes Genom, sofern seine Fitness nicht im Cache steht, und gibt zurück, ob es bewertet wurde
+    private boolean evaluateGenome(Genome genome, FitnessCache cache) {
+        Double fitness = cache != null ? cache.get(genome) : null;
+        boolean evaluated = fitness == null;
+
+        if (evaluated) {
+            fitness = evaluateGenome(genome);
+
+            if (cache != null) {
+                cache.put(genome, fitness);
+            }
+        }
+
+        genome.setFitness(fitness);
+        return evaluated;
+    }
+
+    // Setzt ein bewertetes Kind anstelle des schlechtesten Genoms seiner Spezies in die Bevölkerung ein, sofern es nicht schlechter als dieses ist
+    private void replaceWorst(Genome child) {
+        Species target = null;
 
         for (Species species : species) {
-            subTotalFitness += species.getAdjustedFitnessSum();
+            if (child.isCompatible(species.getRepresentative())) {
+                target = species;
+                break;
+            }
+        }
 
-            if (choice < subTotalFitness)
-                return species;
+        Genome worst = null;
+
+        if (target != null) {
+            for (Genome genome : target.getGenomes()) {
+                if (worst == null || genome.getFitness() < worst.getFitness()) {
+                    worst = genome;
+                }
+            }
+        } else {
+            // Neue Spezies: Das Genom mit der geringsten Adjusted Fitness der gesamten Bevölkerung muss weichen
+            for (Genome genome : genomes) {
+                if (worst == null || genome.getFitness() / genome.getSpecies().getGenomes().size()
+                        < worst.getFitness() / worst.getSpecies().getGenomes().size()) {
+                    worst = genome;
+                }
+            }
+        }
+
+        Species worstSpecies = worst.getSpecies();
+        // Gleich gute Kinder werden eingesetzt, damit sich die Bevölkerung auch auf Plateaus der Fitness (z.B. zu Beginn) weiterentwickelt
+        boolean worse = target != null
+                ? child.getFitness() < worst.getFitness()
+                : child.getFitness() < worst.getFitness() / worstSpecies.getGenomes().size();
+
+        if (worse) {
+            return;
+        }
+
+        int slot = slots.remove(worst);
+        genomes.set(slot, child);
+        slots.put(child, slot);
+        elites.remove(worst);
+        worstSpecies.getGenomes().remove(worst);
+
+        if (target == null) {
+            target = new Species(child);
+            species.add(target);
+        } else {
+            target.addGenome(child);
+        }
+
+        child.setSpecies(target);
+
+        if (worstSpecies.getGenomes().isEmpty()) {
+            species.remove(worstSpecies);
+        } else {
+            worstSpecies.calculateAdjustedFitness();
+            worstSpecies.findMostFitGenome();
+            worstSpecies.buildSelection();
+        }
+
+        target.calculateAdjustedFitness();
+        target.findMostFitGenome();
+        target.buildSelection();
+
+        if (worst == mostFitGenome) {
+            selectMostFit();
+        } else {
+            if (child.getFitness() > mostFitGenome.getFitness()) {
+                mostFitGenome = child;
+            }
+
+            buildSpeciesSelection();
+        }
+    }
+
+    // Beginnt nach populationSize Kindern eine neue Generation, in der Innovation-Numbers neu vergeben werden
+    private void startSteadyStateGeneration() {
+        if (births >= populationSize) {
+            if (logging) {
+                System.out.println(String.format("Generation #%s\t\t Population: %s\t\t NumSpecies: %s\t\t Fitness: %s", generation, populationSize, species.size(), mostFitGenome.getFitness()));
+            }
+
+            births = 0;
+            generation++;
+
+            if (!sharedRegistry) {
+                counters.startGeneration();
+            }
+        }
+    }
+
+    // Teilt die Genome der aktuellen Generation in Spezies ein
+    // Die Spezies der vorherigen Generation bleiben mit ihrem besten Genom als Repräsentant erhalten, sodass die Genome parallel mit diesen verglichen werden können
+    // Nur Genome, die in keine übernommene Spezies passen, werden anschließend der Reihe nach auf neue Spezies verteilt, wodurch die Einteilung nicht von der Anzahl der Threads abhängt
+    private void speciate() {
+        int numPrevious = species.size();
+        // <Übernommene Spezies, Index in species>
+        Map<Species, Integer> successors = new IdentityHashMap<>();
+
+        for (int s = 0; s < numPrevious; s++) {
+            species.get(s).startGeneration();
+            successors.put(species.get(s), s);
+        }
+
+        // Index der ersten passenden übernommenen Spezies für jedes Genom, oder -1
+        int[] matches = new int[genomes.size()];
+
+        runParallel(genomes.size(), SPECIATION_CHUNK_SIZE, i -> matches[i] = findSpecies(genomes.get(i), successors));
+
+        for (int i = 0; i < genomes.size(); i++) {
+            Genome genome = genomes.get(i);
+            Species target = null;
+
+            if (matches[i] >= 0) {
+                target = species.get(matches[i]);
+            } else {
+                // Passt genome in eine neue Spezies dieser Generation?
+                for (int s = numPrevious; s < species.size(); s++) {
+                    if (genome.isCompatible(species.get(s).getRepresentative())) {
+                        target = species.get(s);
+                        break;
+                    }
+                }
+            }
+
+            if (target != null) {
+                target.addGenome(genome);
+            } else {
+                // Erstelle eine neue Spezies
+                target = new Species(genome);
+                species.add(target);
+            }
+
+            genome.setSpecies(target);
+        }
+
+        // Ausgestorbene Spezies entfernen
+        species.removeIf(species -> species.getGenomes().isEmpty());
+    }
+
+    // Gibt den Index der ersten übernommenen Spezies zurück, zu der das Genom passt, oder -1
+    private int findSpecies(Genome genome, Map<Species, Integer> successors) {
+        // Passt das Genom noch in die Spezies seines Elternteils?
+        if (Config.INCREMENTAL_SPECIATION && genome.getSpecies() != null) {
+            Integer index = successors.get(genome.getSpecies());
+
+            if (index != null && genome.isCompatible(species.get(index).getRepresentative())) {
+                return index;
+            }
         }
 
-        return species.get(0);
+        for (int s = 0; s < successors.size(); s++) {
+            if (genome.isCompatible(species.get(s).getRepresentative())) {
+                return s;
+            }
+        }
+
+        return -1;
     }
 
-    // Gibt ein zufälliges Genom der übergenen Spezies zurück, wobei Genome mit höherer Fitness mit größerer Wahrscheinlichkeit zurückgegeben werden
-    // Übernommen von https://stackoverflow.com/questions/20327958/random-number-with-probabilities/20329901#20329901 mit eigenen Änderungen
-    private Genome getRandomGenome(Species species) {
-        double totalFitness = 0.0D;
+    // Bewertet alle Genome der aktuellen Generation, bei gesetztem Executor parallel bzw. über das gesetzte EvaluationBackend
+    // Unverändert übernommene Champions (Elitismus) werden nicht erneut bewertet
+    // Mit gesetztem Fitness-Cache werden nur Genome bewertet, deren Inhalt noch nicht bewertet wurde
+    // Gibt die Anzahl der tatsächlich bewerteten Genome zurück
+    private int evaluateGenomes() {
+        FitnessCache cache = fitnessCache;
+        EvaluationBackend backend = evaluationBackend;
+        List<Genome> unevaluated = new ArrayList<>(genomes.size());
 
-        for (Genome genome : species.getGenomes()) {
-            totalFitness += genome.getFitness();
+        for (Genome genome : genomes) {
+            if (!elites.contains(genome)) {
+                unevaluated.add(genome);
+            }
         }
 
-        double choice = RANDOM.nextDouble() * totalFitness;
-        double subTotalFitness = 0.0D;
+        if (backend != null) {
+            List<Genome> pending = new ArrayList<>();
+
+            for (Genome genome : unevaluated) {
+                Double fitness = cache != null ? cache.get(genome) : null;
 
-        for (Genome genome : species.getGenomes()) {
-            subTotalFitness += genome.getFitness();
+                if (fitness != null) {
+                    genome.setFitness(fitness);
+                } else {
+                    pending.add(genome);
+                }
+            }
 
-            if (choice < subTotalFitness)
-                return genome;
+            backend.evaluate(pending);
+
+            if (cache != null) {
+                for (Genome genome : pending) {
+                    cache.put(genome, genome.getFitness());
+                }
+            }
+
+            return pending.size();
+        }
+
+        if (maxEvaluationsInFlight > 0) {
+            return evaluateGenomesAsync(unevaluated, cache);
         }
 
-        return species.getGenomes().get(0);
+        AtomicInteger numEvaluations = new AtomicInteger();
+
+        runParallel(unevaluated.size(), 1, i -> {
+            if (evaluateGenome(unevaluated.get(i), cache)) {
+                numEvaluations.incrementAndGet();
+            }
+        });
+
+        return numEvaluations.get();
+    }
+
+    // Bewertet die Genome über evaluateGenomeAsync(), wobei höchstens maxEvaluationsInFlight Bewertungen gleichzeitig laufen
+    // Gibt die Anzahl der Genome zurück, deren Fitness nicht im Cache stand
+    private int evaluateGenomesAsync(List<Genome> unevaluated, FitnessCache cache) {
+        Semaphore permits = new Semaphore(maxEvaluationsInFlight);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[unevaluated.size()];
+        int numEvaluations = 0;
+
+        for (int i = 0; i < futures.length; i++) {
+            Genome genome = unevaluated.get(i);
+            Double cached = cache != null ? cache.get(genome) : null;
+
+            if (cached != null) {
+                genome.setFitness(cached);
+                futures[i] = CompletableFuture.completedFuture(cached);
+                continue;
+            }
+
+            // Wartet, bis eine der laufenden Bewertungen fertig ist
+            permits.acquireUninterruptibly();
+            numEvaluations++;
+
+            CompletableFuture<Double> future;
+
+            try {
+                future = evaluateGenomeAsync(genome);
+            } catch (RuntimeException exception) {
+                permits.release();
+                join(Arrays.copyOf(futures, i));
+                throw exception;
+            }
+
+            futures[i] = future.whenComplete((fitness, error) -> {
+                permits.release();
+
+                if (error == null) {
+                    genome.setFitness(fitness);
+
+                    if (cache != null) {
+                        cache.put(genome, fitness);
+                    }
+                }
+            });
+        }
+
+        join(futures);
+        return numEvaluations;
+    }
+
+    // Führt action für alle Indizes von 0 bis count - 1 aus, bei gesetztem Executor parallel in Blöcken von chunkSize Indizes
+    private void runParallel(int count, int chunkSize, IntConsumer action) {
+        if (executor == null) {
+            for (int i = 0; i < count; i++) {
+                action.accept(i);
+            }
+
+            return;
+        }
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[(count + chunkSize - 1) / chunkSize];
+
+        for (int c = 0; c < futures.length; c++) {
+            int first = c * chunkSize;
+            int last = Math.min(count, first + chunkSize);
+
+            futures[c] = CompletableFuture.runAsync(() -> {
+                for (int i = first; i < last; i++) {
+                    action.accept(i);
+                }
+            }, executor);
+        }
+
+        join(futures);
+    }
+
+    // Wartet auf alle futures und wirft die Exception der ersten fehlgeschlagenen Aufgabe weiter
+    private static void join(CompletableFuture<?>[] futures) {
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+
+            throw exception;
+        }
+    }
+
+    // Gibt eine zufällige Spezies zurück, wobei Spezies mit höherer Adjusted Fitness mit größerer Wahrscheinlichkeit zurückgegeben werden
+    private Species getRandomSpecies(RandomGenerator random) {
+        return species.get(speciesSelection.sample(random));
     }
 
     // Bewertet ein Genom
     // Da bei jeder Anwendung andere Parameter wichtig sind, muss diese Methode anwendungsspezifisch programmiert werden
+    // Ist ein Executor gesetzt, wird diese Methode gleichzeitig aus mehreren Threads für verschiedene Genome aufgerufen und muss daher threadsicher sein
     public abstract double evaluateGenome(Genome genome);
 
+    // Bewertet ein Genom asynchron, wird anstelle von evaluateGenome() verwendet, sobald setMaxEvaluationsInFlight() gesetzt ist
+    // Kann überschrieben werden, um während der Bewertung keinen Thread zu blockieren (z.B. bei Simulatoren in anderen Prozessen)
+    // Standardmäßig wird evaluateGenome() auf virtuellen Threads (siehe setVirtualThreads()), dem Executor oder dem gemeinsamen ForkJoinPool ausgeführt
+    public CompletableFuture<Double> evaluateGenomeAsync(Genome genome) {
+        Executor executor = virtualThreads ? VirtualThreads.EXECUTOR : this.executor != null ? this.executor : ForkJoinPool.commonPool();
+        return CompletableFuture.supplyAsync(() -> evaluateGenome(genome), executor);
+    }
+
+    // Bewertet die Genome über evaluateGenomeAsync() mit höchstens maxEvaluationsInFlight gleichzeitig laufenden Bewertungen
+    // Mit 0 werden die Genome wieder über evaluateGenome() bewertet
+    public void setMaxEvaluationsInFlight(int maxEvaluationsInFlight) {
+        if (maxEvaluationsInFlight < 0) {
+            throw new IllegalArgumentException("Die Anzahl gleichzeitiger Bewertungen darf nicht negativ sein!");
+        }
+
+        this.maxEvaluationsInFlight = maxEvaluationsInFlight;
+    }
+
+    // Gibt die Höchstzahl gleichzeitig laufender asynchroner Bewertungen zurück, oder 0
+    public int getMaxEvaluationsInFlight() {
+        return maxEvaluationsInFlight;
+    }
+
+    // Führt evaluateGenome() in evaluateGenomeAsync() auf einem eigenen virtuellen Thread je Bewertung aus
+    // Vor Java 21 gibt es keine virtuellen Threads, dann wird stattdessen je Bewertung ein Daemon-Thread aus einem Cached Thread Pool verwendet
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    // Gibt zurück, ob evaluateGenomeAsync() auf virtuellen Threads ausgeführt wird
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    // Gibt zurück, ob die JVM virtuelle Threads unterstützt
+    public static boolean isVirtualThreadsAvailable() {
+        return VirtualThreads.AVAILABLE;
+    }
+
+    // Setzt den Executor (z.B. einen ForkJoinPool), auf dem die Genome bewertet, in Spezies eingeteilt und erzeugt werden
+    // Mit null werden die Genome nacheinander auf dem aufrufenden Thread bewertet
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    // Gibt den Executor zurück, auf dem die Genome bewertet, in Spezies eingeteilt und erzeugt werden
+    public Executor getExecutor() {
+        return executor;
+    }
+
     // Gibt die Größe der Bevölkerung zurück
     public int getPopulationSize() {
         return populationSize;
@@ -180,13 +1044,152 @@ public abstract class NEAT {
         return genomes;
     }
 
+    // Gibt Kopien der count besten Genome der zuletzt bewerteten Generation zurück, z.B. um diese in andere Bevölkerungen auszuwandern
+    public List<Genome> getMostFitGenomes(int count) {
+        List<Genome> evaluated = new ArrayList<>();
+
+        for (Species species : species) {
+            evaluated.addAll(species.getGenomes());
+        }
+
+        evaluated.sort(Comparator.comparingDouble(Genome::getFitness).reversed());
+
+        List<Genome> mostFit = new ArrayList<>();
+
+        for (int i = 0; i < Math.min(count, evaluated.size()); i++) {
+            mostFit.add(snapshot(evaluated.get(i)));
+        }
+
+        return mostFit;
+    }
+
+    // Setzt Kopien der übergebenen Genome anstelle der letzten Kinder der nächsten Generation ein, die dadurch noch bewertet und eingeteilt werden
+    // Unverändert übernommene Champions werden dabei nicht ersetzt
+    // Die Genome müssen Innovation-Numbers und Neuronen-IDs derselben Zähler verwenden (siehe NEAT(Genome, int, Counters))
+    // Darf nicht gleichzeitig mit processGeneration() aufgerufen werden
+    public void immigrate(List<Genome> migrants) {
+        // Die Kinder sind noch nicht bewertet, daher werden die letzten ersetzt
+        List<Integer> children = new ArrayList<>();
+
+        for (int i = genomes.size() - 1; i >= 0 && children.size() < migrants.size(); i--) {
+            if (!elites.contains(genomes.get(i))) {
+                children.add(i);
+            }
+        }
+
+        if (children.size() < migrants.size()) {
+            throw new IllegalArgumentException("Es können höchstens " + children.size() + " Genome einwandern!");
+        }
+
+        for (int i = 0; i < migrants.size(); i++) {
+            Genome migrant = migrants.get(i).copy();
+            migrant.setCounters(counters);
+            genomes.set(children.get(i), migrant);
+        }
+
+        steadyState = false;
+    }
+
+    // Gibt zurück, wie viele Champions höchstens unverändert übernommen werden und damit nicht durch Einwanderer ersetzt werden können
+    // Jede Spezies mit mindestens ELITISM_MIN_SPECIES_SIZE Genomen übernimmt höchstens ELITISM Champions (siehe reproduce())
+    int getMaxNumElites() {
+        int numSpecies = populationSize / Math.max(Config.ELITISM_MIN_SPECIES_SIZE, 1);
+        return (int) Math.min(populationSize, (long) numSpecies * Math.max(Config.ELITISM, 0));
+    }
+
+    // Legt fest, ob das Register der Zähler von außen (durch IslandRunner) geleert wird
+    void setSharedRegistry(boolean sharedRegistry) {
+        this.sharedRegistry = sharedRegistry;
+    }
+
     // Gibt eine Liste aller Spezies zurück
     public List<Species> getSpecies() {
         return species;
     }
 
+    // Gibt die Zähler für Innovation-Numbers und Neuronen-IDs dieses Durchlaufs zurück
+    public Counters getCounters() {
+        return counters;
+    }
+
+    // Setzt den Cache, über den unveränderte Genome ihre Fitness erhalten, ohne erneut bewertet zu werden
+    // Darf nur bei deterministischer Bewertung gesetzt werden, mit null wird jedes Genom bewertet
+    public void setFitnessCache(FitnessCache fitnessCache) {
+        this.fitnessCache = fitnessCache;
+    }
+
+    // Gibt den Fitness-Cache zurück, oder null
+    public FitnessCache getFitnessCache() {
+        return fitnessCache;
+    }
+
+    // Setzt das Backend, das die Genome anstelle von evaluateGenome() bewertet, z.B. ein SocketEvaluationBackend
+    // Mit null werden die Genome wieder über evaluateGenome() bewertet; das Backend wird nicht geschlossen
+    public void setEvaluationBackend(EvaluationBackend evaluationBackend) {
+        this.evaluationBackend = evaluationBackend;
+    }
+
+    // Gibt das EvaluationBackend zurück, oder null
+    public EvaluationBackend getEvaluationBackend() {
+        return evaluationBackend;
+    }
+
+    // Fügt einen Listener hinzu, der nach jeder Generation deren Kennzahlen erhält
+    public void addListener(GenerationListener listener) {
+        listeners.add(listener);
+    }
+
+    // Entfernt einen Listener
+    public void removeListener(GenerationListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Schaltet die Ausgabe einer Zeile pro Generation auf der Konsole ein oder aus
+    public void setLogging(boolean logging) {
+        this.logging = logging;
+    }
+
+    // Gibt zurück, ob pro Generation eine Zeile auf der Konsole ausgegeben wird
+    public boolean isLogging() {
+        return logging;
+    }
+
+    // Gibt den Seed des Durchlaufs zurück
+    public long getSeed() {
+        return seed;
+    }
+
+    // Gibt zurück, ob strukturelle Mutationen unabhängig von der Anzahl der Threads nummeriert werden
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
     // Gibt die aktuelle Generation zurück
     public int getGeneration() {
         return generation;
     }
+
+    // Wird erst beim ersten Zugriff geladen, damit ohne virtuelle Threads kein Executor entsteht
+    private static class VirtualThreads {
+        private static final boolean AVAILABLE;
+        private static final Executor EXECUTOR;
+
+        static {
+            Executor executor;
+
+            try {
+                // Über Reflection, damit die Bibliothek weiterhin mit Java 17 kompiliert werden kann
+                executor = (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException exception) {
+                executor = null;
+            }
+
+            AVAILABLE = executor != null;
+            EXECUTOR = executor != null ? executor : Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "NEAT-Evaluation");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package de.nkilders.neat;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * @author Noah Kilders
+ */
+// Stellt die Kennzahlen der letzten Generation als MBean über JMX bereit (z.B. für JConsole oder einen JMX-Exporter)
+public class NEATMetrics implements NEATMetricsMBean, GenerationListener {
+    // Leere Kennzahlen, bis die erste Generation abgeschlossen ist
+    private static final GenerationStats EMPTY = new GenerationStats(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+    private volatile GenerationStats stats;
+
+    public NEATMetrics() {
+        this.stats = EMPTY;
+    }
+
+    // Erstellt eine MBean für neat, meldet diese unter "de.nkilders.neat:type=NEAT,name=<name>" an und gibt sie zurück
+    public static NEATMetrics register(NEAT neat, String name) throws JMException {
+        NEATMetrics metrics = new NEATMetrics();
+
+        ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName("de.nkilders.neat:type=NEAT,name=" + ObjectName.quote(name)));
+        neat.addListener(metrics);
+
+        return metrics;
+    }
+
+    @Override
+    public void generationProcessed(GenerationStats stats) {
+        this.stats = stats;
+    }
+
+    // Gibt die Kennzahlen der letzten Generation zurück
+    public GenerationStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public int getGeneration() {
+        return stats.getGeneration();
+    }
+
+    @Override
+    public int getNumSpecies() {
+        return stats.getNumSpecies();
+    }
+
+    @Override
+    public double getBestFitness() {
+        return stats.getBestFitness();
+    }
+
+    @Override
+    public double getMeanFitness() {
+        return stats.getMeanFitness();
+    }
+
+    @Override
+    public double getMeanConnections() {
+        return stats.getMeanConnections();
+    }
+
+    @Override
+    public int getMaxConnections() {
+        return stats.getMaxConnections();
+    }
+
+    @Override
+    public double getSpeciationMillis() {
+        return stats.getSpeciationNanos() / 1e6D;
+    }
+
+    @Override
+    public double getEvaluationMillis() {
+        return stats.getEvaluationNanos() / 1e6D;
+    }
+
+    @Override
+    public double getSelectionMillis() {
+        return stats.getSelectionNanos() / 1e6D;
+    }
+
+    @Override
+    public double getReproductionMillis() {
+        return stats.getReproductionNanos() / 1e6D;
+    }
+
+    @Override
+    public int getNumEvaluations() {
+        return stats.getNumEvaluations();
+    }
+
+    @Override
+    public double getEvaluationsPerSecond() {
+        return stats.getEvaluationsPerSecond();
+    }
+}
@@ -0,0 +1,31 @@
+package de.nkilders.neat;
+
+/**
+ * @author Noah Kilders
+ */
+// JMX-Schnittstelle von NEATMetrics, die Zeiten sind in Millisekunden angegeben
+public interface NEATMetricsMBean {
+    int getGeneration();
+
+    int getNumSpecies();
+
+    double getBestFitness();
+
+    double getMeanFitness();
+
+    double getMeanConnections();
+
+    int getMaxConnections();
+
+    double getSpeciationMillis();
+
+    double getEvaluationMillis();
+
+    double getSelectionMillis();
+
+    double getReproductionMillis();
+
+    int getNumEvaluations();
+
+    double getEvaluationsPerSecond();
+}
@@ -0,0 +1,343 @@
+package de.nkilders.neat;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * @author Noah Kilders
+ */
+// Kompilierte Form eines Genoms, die einmal pro Genom erstellt wird
+// Die Neuronen liegen in topologischer Reihenfolge vor, sodass die Netzausgabe in einem einzigen Durchlauf berechnet werden kann
+// Ein Network ist unveränderlich und kann daher gleichzeitig aus mehreren Threads abgefragt werden
+// Rekurrente Verbindungen (entgegen der topologischen Reihenfolge) lesen die Aktivierungen des vorherigen Zeitschritts,
+// die bei query() und queryBatch() immer 0 sind; Zeitreihen werden mit einem NetworkState schrittweise berechnet
+public class Network {
+    // Zwischenspeicher für die Aktivierungen, den sich alle Netzwerke eines Threads teilen
+    private static final ThreadLocal<double[]> ACTIVATIONS = ThreadLocal.withInitial(() -> new double[0]);
+    // Rechenkern für Abfragen mehrerer Eingabezeilen
+    private static final BatchKernel KERNEL = BatchKernel.load();
+    // Anzahl der Eingabezeilen, die gemeinsam berechnet werden, damit die Aktivierungen im Cache bleiben
+    private static final int BATCH_SIZE = 256;
+
+    private final int numInputs;
+    private final int numNeurons;
+    // Für jedes Neuron der Index der ersten eingehenden Verbindung in sources/weights (Länge numNeurons + 1)
+    private final int[] connectionStart;
+    // Index des Quellneurons jeder Verbindung
+    private final int[] sources;
+    // Gewicht jeder Verbindung
+    private final double[] weights;
+    // Wie connectionStart, sources und weights, aber nur für die rekurrenten Verbindungen
+    private final int[] recurrentStart;
+    private final int[] recurrentSources;
+    private final double[] recurrentWeights;
+    // Indizes der Ausgabeneuronen
+    private final int[] outputIndices;
+
+    public Network(Genome genome) {
+        numInputs = genome.getNumInputs();
+        numNeurons = genome.getNumNeurons();
+
+        // Die Eingabeneuronen stehen vorne, alle anderen Neuronen folgen in der topologischen Reihenfolge des Genoms
+        Integer[] others = new Integer[numNeurons - numInputs];
+        int count = 0;
+
+        for (int n = 0; n < numNeurons; n++) {
+            if (genome.getNeuronType(n) != Neuron.NeuronType.INPUT) {
+                others[count++] = n;
+            }
+        }
+
+        Arrays.sort(others, Comparator.comparingInt(genome::getNeuronPosition));
+
+        // Index im Genom -> Index in topologischer Reihenfolge
+        int[] indices = new int[numNeurons];
+
+        for (int i = 0; i < numInputs; i++) {
+            indices[genome.indexOfNeuron(genome.getInputId(i))] = i;
+        }
+
+        for (int n = 0; n < others.length; n++) {
+            indices[others[n]] = numInputs + n;
+        }
+
+        // Eingehende Verbindungen nach Zielneuron gruppieren, Eingabeneuronen übernehmen dabei immer den Eingabewert
+        // Verbindungen, deren Quelle nicht vor dem Ziel berechnet wird, kommen in die rekurrenten Arrays
+        int numGenes = genome.getNumGenes();
+        int[] targets = new int[numGenes];
+        boolean[] recurrent = new boolean[numGenes];
+        int numConnections = 0;
+        int numRecurrent = 0;
+
+        connectionStart = new int[numNeurons + 1];
+        recurrentStart = new int[numNeurons + 1];
+
+        for (int g = 0; g < numGenes; g++) {
+            int source = indices[genome.indexOfNeuron(genome.getGeneInput(g))];
+            int target = indices[genome.indexOfNeuron(genome.getGeneOutput(g))];
+            targets[g] = -1;
+
+            if (genome.isGeneExpressed(g) && target >= numInputs) {
+                targets[g] = target;
+                recurrent[g] = source >= target;
+
+                if (recurrent[g]) {
+                    recurrentStart[target + 1]++;
+                    numRecurrent++;
+                } else {
+                    connectionStart[target + 1]++;
+                    numConnections++;
+                }
+            }
+        }
+
+        for (int n = 0; n < numNeurons; n++) {
+            connectionStart[n + 1] += connectionStart[n];
+            recurrentStart[n + 1] += recurrentStart[n];
+        }
+
+        sources = new int[numConnections];
+        weights = new double[numConnections];
+        recurrentSources = new int[numRecurrent];
+        recurrentWeights = new double[numRecurrent];
+
+        int[] next = Arrays.copyOf(connectionStart, numNeurons);
+        int[] nextRecurrent = Arrays.copyOf(recurrentStart, numNeurons);
+
+        for (int g = 0; g < numGenes; g++) {
+            if (targets[g] < 0) {
+                continue;
+            }
+
+            int source = indices[genome.indexOfNeuron(genome.getGeneInput(g))];
+
+            if (recurrent[g]) {
+                int c = nextRecurrent[targets[g]]++;
+
+                recurrentSources[c] = source;
+                recurrentWeights[c] = genome.getGeneWeight(g);
+            } else {
+                int c = next[targets[g]]++;
+
+                sources[c] = source;
+                weights[c] = genome.getGeneWeight(g);
+            }
+        }
+
+        outputIndices = new int[genome.getNumOutputs()];
+
+        for (int o = 0; o < outputIndices.length; o++) {
+            outputIndices[o] = indices[genome.indexOfNeuron(genome.getOutputId(o))];
+        }
+    }
+
+    // Berechnet die Netzausgabe zu den übergebenen Eingabewerten und schreibt diese in output
+    public void query(double[] inputValues, double[] output) {
+        if (inputValues.length != numInputs) {
+            throw new IllegalArgumentException("Brauche " + numInputs + " Eingabewert(e)!");
+        }
+
+        if (output.length != outputIndices.length) {
+            throw new IllegalArgumentException("Brauche Platz für " + outputIndices.length + " Ausgabewert(e)!");
+        }
+
+        double[] activations = getActivations(numNeurons);
+
+        System.arraycopy(inputValues, 0, activations, 0, numInputs);
+
+        for (int n = numInputs; n < numNeurons; n++) {
+            double sum = 0.0D;
+
+            for (int c = connectionStart[n]; c < connectionStart[n + 1]; c++) {
+                sum += weights[c] * activations[sources[c]];
+            }
+
+            activations[n] = sigmoid(sum);
+        }
+
+        for (int o = 0; o < outputIndices.length; o++) {
+            output[o] = activations[outputIndices[o]];
+        }
+    }
+
+    // Berechnet einen Zeitschritt: liest die Eingabewerte, die Aktivierungen des vorherigen Schritts aus previous und schreibt
+    // die Aktivierungen dieses Schritts nach current sowie die Netzausgabe nach output (siehe NetworkState)
+    void step(double[] inputValues, double[] previous, double[] current, double[] output) {
+        if (inputValues.length != numInputs) {
+            throw new IllegalArgumentException("Brauche " + numInputs + " Eingabewert(e)!");
+        }
+
+        if (output.length != outputIndices.length) {
+            throw new IllegalArgumentException("Brauche Platz für " + outputIndices.length + " Ausgabewert(e)!");
+        }
+
+        System.arraycopy(inputValues, 0, current, 0, numInputs);
+
+        for (int n = numInputs; n < numNeurons; n++) {
+            double sum = 0.0D;
+
+            for (int c = connectionStart[n]; c < connectionStart[n + 1]; c++) {
+                sum += weights[c] * current[sources[c]];
+            }
+
+            for (int c = recurrentStart[n]; c < recurrentStart[n + 1]; c++) {
+                sum += recurrentWeights[c] * previous[recurrentSources[c]];
+            }
+
+            current[n] = sigmoid(sum);
+        }
+
+        for (int o = 0; o < outputIndices.length; o++) {
+            output[o] = current[outputIndices[o]];
+        }
+    }
+
+    // Erstellt einen neuen Zustand für die schrittweise Berechnung von Zeitreihen
+    public NetworkState newState() {
+        return new NetworkState(this);
+    }
+
+    // Berechnet die Netzausgaben zu numSamples Eingabezeilen
+    // inputs enthält die Eingabezeilen und outputs die Ausgabezeilen jeweils hintereinander (row-major)
+    public void queryBatch(double[] inputs, int numSamples, double[] outputs) {
+        checkBatch(inputs.length, numSamples, outputs.length);
+
+        double[] activations = getActivations(numNeurons * Math.min(numSamples, BATCH_SIZE));
+        int numOutputs = outputIndices.length;
+
+        for (int first = 0; first < numSamples; first += BATCH_SIZE) {
+            int length = Math.min(BATCH_SIZE, numSamples - first);
+
+            for (int s = 0; s < length; s++) {
+                for (int i = 0; i < numInputs; i++) {
+                    activations[i * length + s] = inputs[(first + s) * numInputs + i];
+                }
+            }
+
+            computeBatch(activations, length);
+
+            for (int s = 0; s < length; s++) {
+                for (int o = 0; o < numOutputs; o++) {
+                    outputs[(first + s) * numOutputs + o] = activations[outputIndices[o] * length + s];
+                }
+            }
+        }
+    }
+
+    // Wie queryBatch(double[], int, double[]), liest und schreibt aber ab der aktuellen Position der Buffer, ohne diese zu verändern
+    public void queryBatch(DoubleBuffer inputs, int numSamples, DoubleBuffer outputs) {
+        checkBatch(inputs.remaining(), numSamples, outputs.remaining());
+
+        double[] activations = getActivations(numNeurons * Math.min(numSamples, BATCH_SIZE));
+        int numOutputs = outputIndices.length;
+        int inputOffset = inputs.position();
+        int outputOffset = outputs.position();
+
+        for (int first = 0; first < numSamples; first += BATCH_SIZE) {
+            int length = Math.min(BATCH_SIZE, numSamples - first);
+
+            for (int s = 0; s < length; s++) {
+                for (int i = 0; i < numInputs; i++) {
+                    activations[i * length + s] = inputs.get(inputOffset + (first + s) * numInputs + i);
+                }
+            }
+
+            computeBatch(activations, length);
+
+            for (int s = 0; s < length; s++) {
+                for (int o = 0; o < numOutputs; o++) {
+                    outputs.put(outputOffset + (first + s) * numOutputs + o, activations[outputIndices[o] * length + s]);
+                }
+            }
+        }
+    }
+
+    // Berechnet die Aktivierungen aller Neuronen für length Zeilen, die Eingabeneuronen müssen bereits belegt sein
+    // Die Aktivierungen von Neuron n liegen in activations[n * length] bis activations[(n + 1) * length - 1]
+    private void computeBatch(double[] activations, int length) {
+        for (int n = numInputs; n < numNeurons; n++) {
+            int offset = n * length;
+
+            Arrays.fill(activations, offset, offset + length, 0.0D);
+
+            for (int c = connectionStart[n]; c < connectionStart[n + 1]; c++) {
+                KERNEL.accumulate(activations, offset, sources[c] * length, weights[c], length);
+            }
+
+            KERNEL.activate(activations, offset, length);
+        }
+    }
+
+    // Überprüft, ob die Eingabe- und Ausgabezeilen für numSamples Abfragen ausreichen
+    private void checkBatch(int inputLength, int numSamples, int outputLength) {
+        if (numSamples < 0) {
+            throw new IllegalArgumentException("Die Anzahl der Eingabezeilen darf nicht negativ sein!");
+        }
+
+        if (inputLength < numSamples * numInputs) {
+            throw new IllegalArgumentException("Brauche " + numSamples * numInputs + " Eingabewert(e)!");
+        }
+
+        if (outputLength < numSamples * outputIndices.length) {
+            throw new IllegalArgumentException("Brauche Platz für " + numSamples * outputIndices.length + " Ausgabewert(e)!");
+        }
+    }
+
+    // Gibt den Zwischenspeicher des aktuellen Threads zurück und vergrößert diesen bei Bedarf
+    private static double[] getActivations(int size) {
+        double[] activations = ACTIVATIONS.get();
+
+        if (activations.length < size) {
+            activations = new double[size];
+            ACTIVATIONS.set(activations);
+        }
+
+        return activations;
+    }
+
+    // Gibt die Anzahl der Eingabewerte zurück
+    public int getNumInputs() {
+        return numInputs;
+    }
+
+    // Gibt die Anzahl der Ausgabewerte zurück
+    public int getNumOutputs() {
+        return outputIndices.length;
+    }
+
+    // Gibt die Anzahl der Neuronen zurück
+    int getNumNeurons() {
+        return numNeurons;
+    }
+
+    // Gibt für jedes Neuron den Index der ersten eingehenden (nicht rekurrenten) Verbindung zurück, nur zum Lesen
+    int[] getConnectionStart() {
+        return connectionStart;
+    }
+
+    // Gibt den Index des Quellneurons jeder Verbindung zurück, nur zum Lesen
+    int[] getSources() {
+        return sources;
+    }
+
+    // Gibt das Gewicht jeder Verbindung zurück, nur zum Lesen
+    double[] getWeights() {
+        return weights;
+    }
+
+    // Gibt die Indizes der Ausgabeneuronen zurück, nur zum Lesen
+    int[] getOutputIndices() {
+        return outputIndices;
+    }
+
+    // Gibt zurück, ob das Netzwerk rekurrente Verbindungen enthält
+    public boolean isRecurrent() {
+        return recurrentSources.length > 0;
+    }
+
+    // Aktivierungsfunktion
+    public static double sigmoid(double x) {
+        return x / (1D + Math.abs(x));
+    }
+}
\ No newline at end of file
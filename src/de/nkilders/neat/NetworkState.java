@@ -0,0 +1,50 @@
+package de.nkilders.neat;
+
+import java.util.Arrays;
+
+/**
+ * @author Noah Kilders
+ */
+// Zustand eines Netzwerks für die schrittweise Berechnung von Zeitreihen
+// Jeder Aufruf von step() berechnet einen Zeitschritt, wobei rekurrente Verbindungen die Aktivierungen des vorherigen Schritts lesen.
+// Die Aktivierungen liegen in zwei Arrays, die nach jedem Schritt getauscht werden, sodass step() keinen Speicher anlegt.
+// Ein NetworkState gehört zu genau einem Thread; mehrere Zustände können sich dasselbe Network teilen.
+public class NetworkState {
+    private final Network network;
+    // Aktivierungen des letzten und des vorletzten Schritts
+    private double[] current;
+    private double[] previous;
+
+    public NetworkState(Network network) {
+        this.network = network;
+        this.current = new double[network.getNumNeurons()];
+        this.previous = new double[network.getNumNeurons()];
+    }
+
+    // Berechnet den nächsten Zeitschritt zu den übergebenen Eingabewerten und schreibt die Netzausgabe in output
+    public void step(double[] inputValues, double[] output) {
+        double[] swap = previous;
+        previous = current;
+        current = swap;
+
+        network.step(inputValues, previous, current, output);
+    }
+
+    // Berechnet den nächsten Zeitschritt und gibt die Netzausgabe zurück
+    public double[] step(double[] inputValues) {
+        double[] output = new double[network.getNumOutputs()];
+        step(inputValues, output);
+        return output;
+    }
+
+    // Setzt alle Aktivierungen auf 0 zurück, z.B. vor einer neuen Zeitreihe
+    public void reset() {
+        Arrays.fill(current, 0.0D);
+        Arrays.fill(previous, 0.0D);
+    }
+
+    // Gibt das Netzwerk zurück, zu dem der Zustand gehört
+    public Network getNetwork() {
+        return network;
+    }
+}
@@ -1,7 +1,8 @@
 package de.nkilders.neat;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * @author Noah Kilders
@@ -10,38 +11,32 @@ public class Neuron {
     private final int id;
     private final NeuronType type;
 
-    private final List<ConnectionGene> inputConnections;
-    private final List<ConnectionGene> outputConnections;
-    private double input;
-    private int numReceivedInputs;
-    private boolean hasFired;
+    // Genom, in dem das Neuron gespeichert ist, oder null
+    private final Genome genome;
 
     // für die grafische Ausgabe
     private int renderX;
     private int renderY;
 
     public Neuron(NeuronType type) {
-        this.type = type;
-        this.id = Counters.getNextNeuronId();
-        this.renderX = 0;
-        this.renderY = 0;
-        this.inputConnections = new ArrayList<>();
-        this.outputConnections = new ArrayList<>();
-        this.input = 0.0D;
-        this.numReceivedInputs = 0;
-        this.hasFired = false;
+        this(Counters.getNextNeuronId(), type);
+    }
+
+    public Neuron(int id, NeuronType type) {
+        this(id, type, null);
     }
 
     public Neuron(Neuron neuron) {
-        this.id = neuron.id;
-        this.type = neuron.type;
+        this(neuron.id, neuron.type, null);
+    }
+
+    // Erstellt eine Sicht auf ein Neuron, das in genome gespeichert ist
+    Neuron(int id, NeuronType type, Genome genome) {
+        this.type = type;
+        this.id = id;
+        this.genome = genome;
         this.renderX = 0;
         this.renderY = 0;
-        this.inputConnections = new ArrayList<>();
-        this.outputConnections = new ArrayList<>();
-        this.input = 0.0D;
-        this.numReceivedInputs = 0;
-        this.hasFired = false;
     }
 
     // Gibt eine Kopie des Gens zurück
@@ -72,63 +67,27 @@ public class Neuron {
         this.renderY = renderY;
     }
 
+    // Gibt die Verbindungen zurück, die in das Neuron hineinführen
     public List<ConnectionGene> getInputConnections() {
-        return inputConnections;
-    }
-
-    public void addInputConnection(ConnectionGene connection) {
-        inputConnections.add(connection);
+        return genome == null ? Collections.emptyList() : genome.getConnections(id, true);
     }
 
+    // Gibt die Verbindungen zurück, die aus dem Neuron herausführen
     public List<ConnectionGene> getOutputConnections() {
-        return outputConnections;
-    }
-
-    public void addOutputConnection(ConnectionGene connection) {
-        outputConnections.add(connection);
+        return genome == null ? Collections.emptyList() : genome.getConnections(id, false);
     }
 
-    // Gibt die Summe aller erhaltenen Eingaben zurück
-    public double getInput() {
-        return input;
-    }
-
-    // Fügt die erhaltene Eingabe zur Summe aller Eingaben hinzu
-    public void addInput(double input) {
-        this.input += input;
-        this.numReceivedInputs++;
-    }
-
-    // Gibt zurück, ob das Neuron alle Eingaben erhalten hat und bereit zur Aktivierung ist
-    public boolean isReadyToFire() {
-        if (type == NeuronType.INPUT) {
-            return numReceivedInputs == 1;
-        } else {
-            int cons = 0;
-
-            for (ConnectionGene connection : inputConnections) {
-                if (connection.isExpressed()) {
-                    cons++;
-                }
-            }
-
-            return numReceivedInputs == cons;
-        }
-    }
-
-    // Setzt die erhaltene Eingabe zurück
-    public void resetInput() {
-        numReceivedInputs = 0;
-        input = 0.0D;
-    }
-
-    // Gibt zurück, ob das Neuron bereits einen Reiz erzeugt hat
-    public boolean hasFired() {
-        return hasFired;
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Neuron)) return false;
+        Neuron neuron = (Neuron) o;
+        return id == neuron.id && type == neuron.type;
     }
 
-    public void setHasFired(boolean hasFired) {
-        this.hasFired = hasFired;
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, type);
     }
 
     @Override
@@ -0,0 +1,23 @@
+package de.nkilders.neat;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * @author Noah Kilders
+ */
+// JFR-Event für eine Phase einer Generation (Spezifizierung, Bewertung, Selektion oder Reproduktion)
+@Name("de.nkilders.neat.Phase")
+@Label("NEAT Phase")
+@Category("NEAT")
+@Description("Eine Phase von NEAT.processGeneration()")
+class PhaseEvent extends Event {
+    @Label("Generation")
+    int generation;
+
+    @Label("Phase")
+    String phase;
+}
@@ -0,0 +1,21 @@
+package de.nkilders.neat;
+
+/**
+ * @author Noah Kilders
+ */
+// Einfacher Rechenkern, dessen Schleifen der JIT-Compiler selbst vektorisieren kann
+public class ScalarBatchKernel implements BatchKernel {
+    @Override
+    public void accumulate(double[] activations, int target, int source, double weight, int length) {
+        for (int i = 0; i < length; i++) {
+            activations[target + i] += weight * activations[source + i];
+        }
+    }
+
+    @Override
+    public void activate(double[] activations, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            activations[i] = Network.sigmoid(activations[i]);
+        }
+    }
+}
@@ -0,0 +1,491 @@
+package de.nkilders.neat;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * @author Noah Kilders
+ */
+// Verteilt die Bewertung über Sockets an EvaluationWorker-Prozesse, die sich mit diesem Backend verbinden
+//
+// Die Genome werden in Pakete von batchSize Genomen aufgeteilt. Jede Verbindung holt sich das nächste Paket, sobald sie
+// das vorherige bewertet hat, sodass schnelle Worker automatisch mehr Pakete übernehmen. Sind keine Pakete mehr übrig,
+// bewerten freie Verbindungen zusätzlich noch laufende Pakete, damit ein langsamer Worker die Generation nicht aufhält.
+// Sobald eine der beiden Verbindungen ihr Ergebnis liefert, wird die andere abgebrochen, sie bewertet dann nur noch das aktuelle Genom zu Ende.
+// Während ein Worker ein Paket bewertet, sendet er regelmäßig Lebenszeichen. Bricht eine Verbindung ab oder kommt
+// timeoutMillis lang keine Nachricht, wird ihr Paket erneut verteilt, wie lange die Bewertung selbst dauert, spielt dafür keine Rolle.
+// Ein Paket, dessen Verbindung MAX_ATTEMPTS Mal abbricht, und eine Bewertung, für die timeoutMillis lang kein Worker verbunden ist,
+// lassen evaluate() mit einer Exception fehlschlagen.
+//
+// Protokoll (DataOutputStream):
+// Worker -> Backend: MAGIC, VERSION, danach HEARTBEAT oder je Paket: RESULT, Paket-ID, Status, bei STATUS_OK Anzahl und Fitness je Genom,
+//                    bei STATUS_ERROR eine Fehlermeldung, bei STATUS_CANCELLED nichts weiter
+// Backend -> Worker: Abstand der Lebenszeichen in Millisekunden, danach je Paket: BATCH, Paket-ID, Anzahl, (Länge, Genom im Format von GenomeIO) je Genom
+//                    sowie während der Bewertung eines Pakets gegebenenfalls CANCEL, Paket-ID
+public class SocketEvaluationBackend implements EvaluationBackend {
+    static final int MAGIC = 0x4E454157; // "NEAW"
+    static final int VERSION = 3;
+    static final int BATCH = 1;
+    static final int HEARTBEAT = 2;
+    static final int RESULT = 3;
+    static final int CANCEL = 4;
+    static final int STATUS_OK = 0;
+    static final int STATUS_ERROR = 1;
+    static final int STATUS_CANCELLED = 2;
+    // Anzahl der Verbindungen, die bei einem Paket abbrechen dürfen, bevor die Bewertung fehlschlägt
+    private static final int MAX_ATTEMPTS = 3;
+    // Innerhalb von timeoutMillis sendet ein Worker so viele Lebenszeichen
+    private static final int HEARTBEATS_PER_TIMEOUT = 4;
+
+    private final ServerSocket serverSocket;
+    private final int batchSize;
+    private final int timeoutMillis;
+
+    // Schützt alle folgenden Felder
+    private final Object lock;
+    // Noch nicht verteilte Pakete
+    private final Deque<Batch> queue;
+    // Verteilte, aber noch nicht bewertete Pakete in der Reihenfolge ihrer Verteilung
+    private final Set<Batch> running;
+    private final Set<Socket> connections;
+    private final List<Process> processes;
+    private int nextBatchId;
+    private boolean closed;
+    // Grund, aus dem zuletzt eine Verbindung abgebrochen ist
+    private IOException lastFailure;
+
+    // Wartet auf Port port auf Worker (0 wählt einen freien Port, siehe getPort())
+    // timeoutMillis ist die längste Zeit ohne Nachricht eines Workers und ohne verbundenen Worker
+    public SocketEvaluationBackend(int port, int batchSize, int timeoutMillis) throws IOException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Ein Paket muss mindestens ein Genom enthalten!");
+        }
+
+        if (timeoutMillis < HEARTBEATS_PER_TIMEOUT) {
+            throw new IllegalArgumentException("Die Zeitüberschreitung muss mindestens " + HEARTBEATS_PER_TIMEOUT + " ms betragen!");
+        }
+
+        this.serverSocket = new ServerSocket(port);
+        this.batchSize = batchSize;
+        this.timeoutMillis = timeoutMillis;
+        this.lock = new Object();
+        this.queue = new ArrayDeque<>();
+        this.running = new LinkedHashSet<>();
+        this.connections = new HashSet<>();
+        this.processes = new ArrayList<>();
+        this.nextBatchId = 0;
+        this.closed = false;
+
+        startThread("NEAT-Accept", this::acceptConnections);
+    }
+
+    // Startet count Worker-Prozesse auf diesem Rechner, die fitnessFunction mit jeweils threads Verbindungen ausführen
+    // Die Prozesse verwenden dieselbe Java-Installation und denselben Klassenpfad wie dieser Prozess und werden mit close() beendet
+    public void startLocalWorkers(int count, int threads, Class<? extends FitnessFunction> fitnessFunction) throws IOException {
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+
+        for (int i = 0; i < count; i++) {
+            Process process = new ProcessBuilder(java.toString(),
+                    "-cp", System.getProperty("java.class.path"),
+                    EvaluationWorker.class.getName(),
+                    InetAddress.getLoopbackAddress().getHostAddress(), String.valueOf(getPort()),
+                    fitnessFunction.getName(), String.valueOf(threads))
+                    .inheritIO()
+                    .start();
+
+            synchronized (lock) {
+                processes.add(process);
+            }
+        }
+    }
+
+    // Gibt den Port zurück, auf dem das Backend auf Worker wartet
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    // Gibt die Anzahl der verbundenen Worker-Verbindungen zurück
+    public int getNumConnections() {
+        synchronized (lock) {
+            return connections.size();
+        }
+    }
+
+    @Override
+    public void evaluate(List<Genome> genomes) {
+        List<Batch> batches = new ArrayList<>();
+
+        synchronized (lock) {
+            for (int first = 0; first < genomes.size(); first += batchSize) {
+                batches.add(new Batch(nextBatchId++, genomes.subList(first, Math.min(genomes.size(), first + batchSize))));
+            }
+
+            queue.addAll(batches);
+            lock.notifyAll();
+
+            // Zeitpunkt in Nanosekunden, bis zu dem ohne verbundenen Worker gewartet wird, oder null, solange Worker verbunden sind
+            Long deadline = null;
+
+            try {
+                while (true) {
+                    if (closed) {
+                        cancel(batches);
+                        throw new IllegalStateException("Das Backend wurde geschlossen!");
+                    }
+
+                    Batch failed = batches.stream().filter(batch -> batch.done && batch.error != null).findFirst().orElse(null);
+
+                    if (failed != null) {
+                        cancel(batches);
+                        throw new IllegalStateException("Die Bewertung auf einem Worker ist fehlgeschlagen: " + failed.error, failed.failure);
+                    }
+
+                    if (batches.stream().allMatch(batch -> batch.done)) {
+                        break;
+                    }
+
+                    if (!connections.isEmpty()) {
+                        deadline = null;
+                        lock.wait();
+                        continue;
+                    }
+
+                    long now = System.nanoTime();
+
+                    if (deadline == null) {
+                        deadline = now + timeoutMillis * 1_000_000L;
+                    } else if (now - deadline >= 0) {
+                        cancel(batches);
+                        throw new IllegalStateException("Seit " + timeoutMillis + " ms ist kein Worker verbunden!", lastFailure);
+                    }
+
+                    lock.wait(Math.max(1L, (deadline - now) / 1_000_000L));
+                }
+            } catch (InterruptedException exception) {
+                cancel(batches);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Die Bewertung wurde unterbrochen!", exception);
+            }
+        }
+
+        for (Batch batch : batches) {
+            for (int i = 0; i < batch.genomes.size(); i++) {
+                batch.genomes.get(i).setFitness(batch.fitness[i]);
+            }
+        }
+    }
+
+    // Verwirft die noch nicht bewerteten Pakete einer abgebrochenen Bewertung, damit die Worker sie nicht weiter bearbeiten
+    private void cancel(List<Batch> batches) {
+        for (Batch batch : batches) {
+            batch.done = true;
+        }
+
+        queue.removeAll(batches);
+        running.removeAll(batches);
+    }
+
+    // Nimmt Verbindungen von Workern an und startet für jede einen eigenen Thread
+    private void acceptConnections() {
+        while (true) {
+            Socket socket;
+
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException exception) {
+                // Der ServerSocket wurde mit close() geschlossen
+                return;
+            }
+
+            synchronized (lock) {
+                if (closed) {
+                    closeQuietly(socket);
+                    return;
+                }
+
+                connections.add(socket);
+            }
+
+            startThread("NEAT-Worker-" + socket.getRemoteSocketAddress(), () -> serve(socket));
+        }
+    }
+
+    // Verteilt Pakete an eine Verbindung, bis diese abbricht oder das Backend geschlossen wird
+    private void serve(Socket socket) {
+        Batch batch = null;
+        DataOutputStream out = null;
+        IOException failure = null;
+
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(timeoutMillis);
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unbekannter Worker " + socket.getRemoteSocketAddress() + "!");
+            }
+
+            out.writeInt(timeoutMillis / HEARTBEATS_PER_TIMEOUT);
+            out.flush();
+
+            while ((batch = takeBatch(out)) != null) {
+                writeBatch(out, batch);
+
+                // Lebenszeichen setzen nur die Zeitüberschreitung zurück
+                int type;
+
+                do {
+                    type = in.readInt();
+                } while (type == HEARTBEAT);
+
+                if (type != RESULT) {
+                    throw new IOException("Unbekannte Nachricht!");
+                }
+
+                int id = in.readInt();
+                int status = in.readInt();
+
+                if (id != batch.id) {
+                    throw new IOException("Antwort auf falsches Paket!");
+                }
+
+                if (status == STATUS_OK) {
+                    int count = in.readInt();
+
+                    if (count != batch.genomes.size()) {
+                        throw new IOException("Antwort mit falscher Anzahl!");
+                    }
+
+                    double[] fitness = new double[count];
+
+                    for (int i = 0; i < count; i++) {
+                        fitness[i] = in.readDouble();
+                    }
+
+                    complete(batch, out, fitness, null);
+                } else if (status == STATUS_CANCELLED) {
+                    // Ein Worker bricht nur Pakete ab, die bereits eine andere Verbindung bewertet hat
+                    if (!abandon(batch, out)) {
+                        throw new IOException("Unerwarteter Abbruch des Pakets " + batch.id + "!");
+                    }
+                } else {
+                    complete(batch, out, null, in.readUTF());
+                }
+
+                batch = null;
+            }
+        } catch (IOException exception) {
+            // Wird über evaluate() gemeldet, sobald ein Paket zu oft oder alle Verbindungen abgebrochen sind
+            failure = new IOException("Verbindung zu Worker " + socket.getRemoteSocketAddress() + " abgebrochen!", exception);
+        } finally {
+            synchronized (lock) {
+                if (failure != null) {
+                    lastFailure = failure;
+                }
+
+                connections.remove(socket);
+                lock.notifyAll();
+            }
+
+            if (batch != null) {
+                release(batch, out, failure);
+            }
+
+            closeQuietly(socket);
+        }
+    }
+
+    // Wartet auf das nächste Paket für die Verbindung mit dem Ausgabestrom out, oder gibt null zurück, sobald das Backend geschlossen wird
+    private Batch takeBatch(DataOutputStream out) {
+        synchronized (lock) {
+            while (!closed) {
+                Batch batch = queue.poll();
+
+                if (batch == null) {
+                    // Ein Paket, das bisher nur eine Verbindung bewertet, zusätzlich übernehmen
+                    batch = running.stream().filter(b -> b.outputs.size() == 1).findFirst().orElse(null);
+                }
+
+                if (batch != null) {
+                    batch.outputs.add(out);
+                    running.add(batch);
+                    return batch;
+                }
+
+                try {
+                    lock.wait();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+
+            return null;
+        }
+    }
+
+    // Speichert das Ergebnis der ersten Verbindung, die ein Paket bewertet hat, und bricht das Paket auf der anderen Verbindung ab
+    private void complete(Batch batch, DataOutputStream out, double[] fitness, String error) {
+        List<DataOutputStream> others = new ArrayList<>();
+
+        synchronized (lock) {
+            batch.outputs.remove(out);
+
+            if (!batch.done) {
+                batch.done = true;
+                batch.fitness = fitness;
+                batch.error = error;
+                running.remove(batch);
+                others.addAll(batch.outputs);
+                lock.notifyAll();
+            }
+        }
+
+        // Außerhalb von lock senden, damit eine langsame Verbindung die übrigen nicht aufhält
+        for (DataOutputStream other : others) {
+            sendCancel(other, batch.id);
+        }
+    }
+
+    // Gibt ein Paket frei, das der Worker nach einem CANCEL abgebrochen hat, und gibt zurück, ob es bereits bewertet ist
+    private boolean abandon(Batch batch, DataOutputStream out) {
+        synchronized (lock) {
+            batch.outputs.remove(out);
+            return batch.done;
+        }
+    }
+
+    // Teilt dem Worker einer Verbindung mit, dass er das Paket mit der übergebenen ID nicht weiter bewerten muss
+    // Hat die Verbindung das Paket inzwischen selbst abgeschlossen, ignoriert der Worker die Nachricht
+    private static void sendCancel(DataOutputStream out, int id) {
+        synchronized (out) {
+            try {
+                out.writeInt(CANCEL);
+                out.writeInt(id);
+                out.flush();
+            } catch (IOException ignored) {
+                // Der Abbruch der Verbindung wird von ihrem eigenen Thread bemerkt
+            }
+        }
+    }
+
+    // Gibt ein Paket einer abgebrochenen Verbindung zurück, damit es erneut verteilt wird
+    // Nach MAX_ATTEMPTS abgebrochenen Verbindungen schlägt das Paket mit failure fehl
+    private void release(Batch batch, DataOutputStream out, IOException failure) {
+        synchronized (lock) {
+            batch.outputs.remove(out);
+            batch.attempts++;
+
+            if (!batch.done && batch.outputs.isEmpty()) {
+                running.remove(batch);
+
+                if (batch.attempts >= MAX_ATTEMPTS) {
+                    batch.done = true;
+                    batch.error = "Das Paket " + batch.id + " wurde auf " + batch.attempts + " Verbindungen abgebrochen";
+                    batch.failure = failure;
+                } else {
+                    queue.addFirst(batch);
+                }
+
+                lock.notifyAll();
+            }
+        }
+    }
+
+    // Hält out während des gesamten Pakets, damit ein CANCEL für ein vorheriges Paket nicht mitten hinein geschrieben wird
+    private void writeBatch(DataOutputStream out, Batch batch) throws IOException {
+        synchronized (out) {
+            ByteBuffer buffer = ByteBuffer.allocate(0).order(ByteOrder.LITTLE_ENDIAN);
+
+            out.writeInt(BATCH);
+            out.writeInt(batch.id);
+            out.writeInt(batch.genomes.size());
+
+            for (Genome genome : batch.genomes) {
+                int size = genome.getSerializedSize();
+
+                if (buffer.capacity() < size) {
+                    buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+                }
+
+                buffer.clear();
+                genome.writeTo(buffer);
+
+                out.writeInt(size);
+                out.write(buffer.array(), 0, size);
+            }
+
+            out.flush();
+        }
+    }
+
+    // Trennt alle Worker, beendet die mit startLocalWorkers() gestarteten Prozesse und bricht laufende Bewertungen ab
+    @Override
+    public void close() {
+        List<Socket> sockets;
+        List<Process> started;
+
+        synchronized (lock) {
+            closed = true;
+            sockets = new ArrayList<>(connections);
+            started = new ArrayList<>(processes);
+            lock.notifyAll();
+        }
+
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+        }
+
+        for (Socket socket : sockets) {
+            closeQuietly(socket);
+        }
+
+        for (Process process : started) {
+            process.destroy();
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void startThread(String name, Runnable runnable) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Ein Paket von Genomen, das von einer oder (gegen Ende einer Generation) zwei Verbindungen gleichzeitig bewertet wird
+    private static class Batch {
+        private final int id;
+        private final List<Genome> genomes;
+        // Ausgabeströme der Verbindungen, die das Paket gerade bewerten
+        private final List<DataOutputStream> outputs;
+        // Anzahl der Verbindungen, die beim Bewerten des Pakets abgebrochen sind
+        private int attempts;
+        private boolean done;
+        private double[] fitness;
+        private String error;
+        // Abbruch der letzten Verbindung, falls das Paket deshalb fehlgeschlagen ist
+        private IOException failure;
+
+        private Batch(int id, List<Genome> genomes) {
+            this.id = id;
+            this.genomes = genomes;
+            this.outputs = new ArrayList<>(2);
+        }
+    }
+}
@@ -3,25 +3,69 @@ package de.nkilders.neat;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.random.RandomGenerator;
 
 /**
  * @author Noah Kilders
  */
+// Eine Spezies bleibt über die Generationen erhalten, bis sie keine Genome mehr hat oder zu lange stagniert
 public class Species {
-    private final Genome representative;
+    private Genome representative;
     private final List<Genome> genomes;
     private double adjustedFitnessSum;
     private Genome mostFitGenome;
+    // Anzahl der Generationen, die die Spezies bereits besteht
+    private int age;
+    // Höchste Fitness, die ein Genom der Spezies bisher erreicht hat
+    private double bestFitness;
+    // Anzahl der Generationen, seit sich bestFitness zuletzt verbessert hat
+    private int stagnation;
+    // Zieht Genome nach ihrer Fitness, wird mit buildSelection() erstellt
+    private AliasTable selection;
 
     public Species(Genome representative) {
         this.representative = representative;
         this.genomes = new ArrayList<>();
         this.adjustedFitnessSum = 0.0D;
         this.mostFitGenome = null;
+        this.age = 0;
+        this.bestFitness = Double.NEGATIVE_INFINITY;
+        this.stagnation = 0;
 
         genomes.add(representative);
     }
 
+    // Bereitet die Spezies auf die Einteilung der nächsten Generation vor
+    // Das bisher beste Genom dient als Repräsentant, wird aber nicht erneut in die Spezies aufgenommen
+    public void startGeneration() {
+        if (mostFitGenome != null) {
+            representative = mostFitGenome;
+        }
+
+        genomes.clear();
+        adjustedFitnessSum = 0.0D;
+        mostFitGenome = null;
+        age++;
+    }
+
+    // Vergleicht die Fitness des besten Genoms mit der bisher höchsten und zählt die Generationen ohne Verbesserung
+    // Muss einmal pro Generation nach findMostFitGenome() aufgerufen werden
+    public void updateStagnation() {
+        if (mostFitGenome.getFitness() > bestFitness) {
+            bestFitness = mostFitGenome.getFitness();
+            stagnation = 0;
+        } else {
+            stagnation++;
+        }
+    }
+
+    // Stellt Alter, bisher höchste Fitness und Stagnation einer gespeicherten Spezies wieder her
+    void restore(int age, double bestFitness, int stagnation) {
+        this.age = age;
+        this.bestFitness = bestFitness;
+        this.stagnation = stagnation;
+    }
+
     // Berechnet die Adjusted Fitness
     public void calculateAdjustedFitness() {
         adjustedFitnessSum = 0.0D;
@@ -37,7 +81,23 @@ public class Species {
         return mostFitGenome = genomes.get(genomes.size() - 1);
     }
 
-    // Gibt das "Urgenom" zurück, auf dem die Spezies aufgebaut ist
+    // Erstellt die Tabelle, aus der getRandomGenome() zieht, nachdem die Genome bewertet wurden
+    public void buildSelection() {
+        double[] fitness = new double[genomes.size()];
+
+        for (int i = 0; i < fitness.length; i++) {
+            fitness[i] = genomes.get(i).getFitness();
+        }
+
+        selection = new AliasTable(fitness);
+    }
+
+    // Gibt ein zufälliges Genom zurück, wobei Genome mit höherer Fitness mit größerer Wahrscheinlichkeit zurückgegeben werden
+    public Genome getRandomGenome(RandomGenerator random) {
+        return genomes.get(selection.sample(random));
+    }
+
+    // Gibt das Genom zurück, mit dem neue Genome verglichen werden
     public Genome getRepresentative() {
         return representative;
     }
@@ -62,8 +122,23 @@ public class Species {
         return mostFitGenome;
     }
 
+    // Gibt die Anzahl der Generationen zurück, die die Spezies bereits besteht
+    public int getAge() {
+        return age;
+    }
+
+    // Gibt die höchste Fitness zurück, die ein Genom der Spezies bisher erreicht hat
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    // Gibt die Anzahl der Generationen zurück, seit sich die höchste Fitness der Spezies zuletzt verbessert hat
+    public int getStagnation() {
+        return stagnation;
+    }
+
     @Override
     public String toString() {
-        return String.format("Species{representative=%s, numGenomes=%s, adjustedFitnessSum=%s, mostFitGenome=%s}", representative, genomes.size(), adjustedFitnessSum, mostFitGenome);
+        return String.format("Species{representative=%s, numGenomes=%s, adjustedFitnessSum=%s, mostFitGenome=%s, age=%s, stagnation=%s}", representative, genomes.size(), adjustedFitnessSum, mostFitGenome, age, stagnation);
     }
 }
\ No newline at end of file